@@ -0,0 +1,31 @@
+package com.glvov.springaimcpbenchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler always on, so every result comes with
+ * {@code gc.alloc.rate.norm} (bytes allocated per operation) next to the time per operation.
+ * <br>
+ * Accepts the usual JMH command line, e.g. a benchmark regexp or {@code -rf json -rff result.json}:
+ * <pre><code>
+ * mvn -pl spring-ai-mcp-benchmarks -am package -DskipTests
+ * java -jar spring-ai-mcp-benchmarks/target/benchmarks.jar
+ * java -jar spring-ai-mcp-benchmarks/target/benchmarks.jar OpenMeteoResponse -rf json -rff result.json
+ * </code></pre>
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        var options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,88 @@
+package com.glvov.springaimcpserver.functional;
+
+import com.glvov.springaimcpserver.config.OpenMeteoClientConfig;
+import com.glvov.springaimcpserver.config.OpenMeteoProperties;
+import com.glvov.springaimcpserver.config.RefreshAheadProperties;
+import com.glvov.springaimcpserver.config.WeatherCacheProperties;
+import com.glvov.springaimcpserver.config.WeatherSnapshotProperties;
+import com.glvov.springaimcpserver.functional.cache.GeoCell;
+import com.glvov.springaimcpserver.functional.cache.HotCells;
+import com.glvov.springaimcpserver.functional.cache.WeatherCache;
+import com.glvov.springaimcpserver.functional.cache.WeatherSnapshotStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * OpenMeteo request URI building with {@code UriComponentsBuilder}, done for every OpenMeteo request:
+ * a single location and a 100-location batch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OpenMeteoGatewayBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    private OpenMeteoGateway gateway;
+    private GeoCell cell;
+    private List<GeoCell> cells;
+
+
+    @Setup
+    public void setUp() {
+        var properties = new OpenMeteoProperties("https://api.open-meteo.com", HttpClient.Version.HTTP_2,
+                Duration.ofSeconds(2), Duration.ofSeconds(5), 20, Duration.ofSeconds(2), Duration.ofSeconds(10), BATCH_SIZE);
+        var config = new OpenMeteoClientConfig();
+        var httpClient = config.openMeteoHttpClient(properties);
+        var meterRegistry = new SimpleMeterRegistry();
+        var cacheProperties = new WeatherCacheProperties(true, 10_000, 0.01,
+                Duration.ofSeconds(30), Duration.ofMinutes(15));
+        var weatherCache = new WeatherCache(cacheProperties, meterRegistry);
+        var snapshotStore = new WeatherSnapshotStore(new WeatherSnapshotProperties(false,
+                Path.of("weather-snapshot.dat"), 10_000, Duration.ofMinutes(5)), cacheProperties, meterRegistry);
+        var hotCells = new HotCells(new RefreshAheadProperties(false, 1000, 100, 3,
+                Duration.ofSeconds(10), Duration.ofSeconds(5), Duration.ofMinutes(10)), cacheProperties, meterRegistry);
+
+        var routeLimiter = config.openMeteoRouteConcurrencyLimiter(properties);
+
+        gateway = new OpenMeteoGateway(
+                config.openMeteoRestClient(httpClient, routeLimiter, properties, ObservationRegistry.NOOP, meterRegistry),
+                config.openMeteoWebClient(httpClient, routeLimiter, properties, ObservationRegistry.NOOP, meterRegistry),
+                properties, weatherCache, snapshotStore, hotCells, meterRegistry);
+
+        cell = weatherCache.cellOf(40.6317, 22.9353);
+        cells = IntStream.range(0, BATCH_SIZE)
+                .mapToObj(i -> weatherCache.cellOf(40.6317 + i * 0.05, 22.9353 + i * 0.05))
+                .toList();
+    }
+
+    @Benchmark
+    public String singleLocationUri() {
+        return gateway.forecastUri(String.valueOf(cell.latitude()), String.valueOf(cell.longitude()));
+    }
+
+    @Benchmark
+    public String batchUri() {
+        return gateway.forecastUri(cells);
+    }
+}
@@ -0,0 +1,70 @@
+package com.glvov.springaimcpserver.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Deserialization of OpenMeteo forecast responses, as done by the {@code RestClient} message converter
+ * for every fetched location: a single location response and a 100-location batch response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OpenMeteoResponseBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private byte[] single;
+    private byte[] batch;
+
+
+    @Setup
+    public void setUp() {
+        single = response(0).getBytes(StandardCharsets.UTF_8);
+        batch = IntStream.range(0, BATCH_SIZE)
+                .mapToObj(OpenMeteoResponseBenchmark::response)
+                .collect(Collectors.joining(",", "[", "]"))
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public OpenMeteoResponse deserializeSingle() {
+        return jsonMapper.readValue(single, OpenMeteoResponse.class);
+    }
+
+    @Benchmark
+    public OpenMeteoResponse[] deserializeBatch() {
+        return jsonMapper.readValue(batch, OpenMeteoResponse[].class);
+    }
+
+    /**
+     * Shape of the real OpenMeteo response, including the fields the model ignores.
+     */
+    private static String response(int i) {
+        return String.format(Locale.ROOT, """
+                {"latitude":%.4f,"longitude":%.4f,"generationtime_ms":0.0230073928833008,"utc_offset_seconds":0,\
+                "timezone":"GMT","timezone_abbreviation":"GMT","elevation":21.0,\
+                "current_units":{"time":"iso8601","interval":"seconds","temperature_2m":"°C"},\
+                "current":{"time":"2025-01-01T12:00","interval":900,"temperature_2m":%.1f}}""",
+                40.63 + i * 0.01, 22.94 + i * 0.01, 10.0 + i % 20);
+    }
+}
@@ -0,0 +1,55 @@
+package com.glvov.springaimcpserver.tools;
+
+import com.glvov.springaimcpserver.model.WeatherInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Final tool response formatting ({@code WeatherService.formatFinalResponse}), done once per tool call:
+ * a single location and a 10-location {@code getTemperatures} call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WeatherResponseFormatterBenchmark {
+
+    private static final String POEM = """
+            Hark! Upon Thessaloniki's shore the gentle sun doth play,
+            And ten degrees of mildness grace this fair and wintry day.
+            """;
+
+    private final WeatherInfo weather = new WeatherInfo(40.6317, 22.9353, 10.4);
+    private final List<WeatherInfo> batch = IntStream.range(0, 10)
+            .mapToObj(i -> new WeatherInfo(40.6317 + i, 22.9353 + i, 10.4 + i))
+            .toList();
+
+
+    @Benchmark
+    public String singleLocation() {
+        return WeatherResponseFormatter.formatFinalResponse(POEM, weather);
+    }
+
+    @Benchmark
+    public String batch() {
+        return WeatherResponseFormatter.formatFinalResponse(POEM, batch);
+    }
+
+    @Benchmark
+    public String withoutPoem() {
+        return WeatherResponseFormatter.formatFinalResponse(null, weather);
+    }
+}
@@ -0,0 +1,46 @@
+package com.glvov.springaimcpserver.tools.sampling;
+
+import com.glvov.springaimcpserver.model.WeatherInfo;
+import io.modelcontextprotocol.spec.McpSchema.CreateMessageRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Sampling prompt construction in {@link PoemSamplingService}, done once per sampled poem:
+ * a single location and a 10-location {@code getTemperatures} call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PoemSamplingServiceBenchmark {
+
+    private final List<WeatherInfo> single = List.of(new WeatherInfo(40.6317, 22.9353, 10.4));
+    private final List<WeatherInfo> batch = IntStream.range(0, 10)
+            .mapToObj(i -> new WeatherInfo(40.6317 + i, 22.9353 + i, 10.4 + i))
+            .toList();
+
+
+    @Benchmark
+    public CreateMessageRequest singleLocationPrompt() {
+        return PoemSamplingService.poemRequest(single);
+    }
+
+    @Benchmark
+    public CreateMessageRequest batchPrompt() {
+        return PoemSamplingService.poemRequest(batch);
+    }
+}
@@ -2,8 +2,10 @@ package com.glvov.springaimcpclient;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class SpringAiMcpClientApplication {
 
     public static void main(String[] args) {
@@ -4,6 +4,8 @@ import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.PrintStream;
+
 @Configuration
 public class ChatClientConfig {
 
@@ -11,4 +13,13 @@ public class ChatClientConfig {
     public ChatClient chatClient(ChatClient.Builder chatClientBuilder) {
         return chatClientBuilder.build();
     }
+
+    /**
+     * Console the answer is streamed to with {@code chat.request.stream}, token by token, which a logger can't do.
+     * Not closed with the context, that would close the standard output of the process.
+     */
+    @Bean(destroyMethod = "")
+    public PrintStream chatOutput() {
+        return System.out;
+    }
 }
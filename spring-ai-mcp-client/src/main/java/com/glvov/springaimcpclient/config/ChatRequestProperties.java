@@ -0,0 +1,19 @@
+package com.glvov.springaimcpclient.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Settings of the chat request sent on startup.
+ *
+ * @param stream whether the answer is printed token by token as the LLM produces it, interleaved with
+ *               the MCP Server progress notifications of the request, instead of once it is complete
+ * @param tools  names of the MCP tools offered to the LLM with the request, all tools when empty;
+ *               every offered tool adds its schema to each LLM request
+ */
+@ConfigurationProperties("chat.request")
+public record ChatRequestProperties(@DefaultValue("false") boolean stream,
+                                    @DefaultValue List<String> tools) {
+}
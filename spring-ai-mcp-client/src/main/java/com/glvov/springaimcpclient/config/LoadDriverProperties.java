@@ -0,0 +1,24 @@
+package com.glvov.springaimcpclient.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+
+/**
+ * Settings of the load driver, which replaces the single startup request of {@code ChatRequestSender}
+ * with a run of many prompts against the configured MCP connections.
+ *
+ * @param enabled       whether the client runs as a load driver
+ * @param promptsFile   text file with one prompt per line, blank lines and lines starting with {@code #} are skipped
+ * @param requests      total number of requests, prompts are repeated in order; {@code 0} sends every prompt once
+ * @param concurrency   max number of requests in flight
+ * @param ratePerSecond max number of requests started per second; {@code 0} means no limit besides concurrency
+ */
+@ConfigurationProperties("load-driver")
+public record LoadDriverProperties(@DefaultValue("false") boolean enabled,
+                                   @DefaultValue("prompts.txt") Path promptsFile,
+                                   @DefaultValue("0") int requests,
+                                   @DefaultValue("8") int concurrency,
+                                   @DefaultValue("0") double ratePerSecond) {
+}
@@ -0,0 +1,34 @@
+package com.glvov.springaimcpclient.config;
+
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.springframework.ai.mcp.ToolContextToMcpMetaConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class McpTracingConfig {
+
+    /**
+     * Builds the {@code _meta} of MCP tool calls: the tool context entries (e.g. {@code progressToken}),
+     * as by default, plus the current trace context (W3C {@code traceparent}), so the server continues the trace
+     * of the tool call and the sampling requests it sends back end up in the same trace.
+     */
+    @Bean
+    public ToolContextToMcpMetaConverter tracingToolContextToMcpMetaConverter(Tracer tracer, Propagator propagator) {
+        ToolContextToMcpMetaConverter defaultConverter = ToolContextToMcpMetaConverter.defaultConverter();
+
+        return toolContext -> {
+            Map<String, Object> meta = new HashMap<>(defaultConverter.convert(toolContext));
+            TraceContext current = tracer.currentTraceContext().context();
+            if (current != null) {
+                propagator.inject(current, meta, Map::put);
+            }
+            return meta;
+        };
+    }
+}
@@ -0,0 +1,17 @@
+package com.glvov.springaimcpclient.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the executor running MCP Server sampling requests against the local LLM.
+ *
+ * @param maxConcurrency max number of sampling requests sent to the LLM at once,
+ *                       should match the number of parallel slots of the model (e.g. {@code OLLAMA_NUM_PARALLEL})
+ * @param queueCapacity  max number of sampling requests waiting for a free slot,
+ *                       requests beyond it are rejected with an MCP error
+ */
+@ConfigurationProperties("sampling.executor")
+public record SamplingExecutorProperties(@DefaultValue("4") int maxConcurrency,
+                                         @DefaultValue("64") int queueCapacity) {
+}
@@ -0,0 +1,29 @@
+package com.glvov.springaimcpclient.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Settings of the client-side cache of MCP tool results.
+ *
+ * @param enabled whether results of the tools declared idempotent are reused for identical calls
+ * @param maxSize max number of cached results, the least recently used one is evicted first
+ * @param tools   cache policy by tool name, tools not listed here are never cached
+ */
+@ConfigurationProperties("mcp.tool-cache")
+public record ToolCacheProperties(@DefaultValue("false") boolean enabled,
+                                  @DefaultValue("1000") int maxSize,
+                                  @DefaultValue Map<String, Tool> tools) {
+
+    /**
+     * @param idempotent whether identical calls of the tool may share one result,
+     *                   i.e. the call has no side effects the caller relies on
+     * @param ttl        how long a result is reused
+     */
+    public record Tool(@DefaultValue("false") boolean idempotent,
+                       @DefaultValue("1m") Duration ttl) {
+    }
+}
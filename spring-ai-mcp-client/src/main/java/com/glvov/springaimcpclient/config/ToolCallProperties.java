@@ -0,0 +1,37 @@
+package com.glvov.springaimcpclient.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * Settings of the execution of the tool calls the LLM requests in one response.
+ *
+ * @param parallel       whether the tool calls of one LLM response run at once instead of one after another
+ * @param maxConcurrency max number of tool calls running at once on an MCP connection not listed in
+ *                       {@code connections}, over all chat requests
+ * @param connections    settings by MCP connection name, e.g. {@code my-weather-server}
+ */
+@ConfigurationProperties("mcp.tool-calls")
+public record ToolCallProperties(@DefaultValue("true") boolean parallel,
+                                 @DefaultValue("4") int maxConcurrency,
+                                 @DefaultValue Map<String, Connection> connections) {
+
+    /**
+     * @return max number of tool calls running at once on the MCP connection
+     */
+    public int maxConcurrencyOf(String connectionName) {
+        Connection connection = connections.get(connectionName);
+        return connection != null && connection.maxConcurrency() != null
+                ? connection.maxConcurrency()
+                : maxConcurrency;
+    }
+
+    /**
+     * @param maxConcurrency max number of tool calls running at once on the connection,
+     *                       {@code mcp.tool-calls.max-concurrency} when not set
+     */
+    public record Connection(Integer maxConcurrency) {
+    }
+}
@@ -1,6 +1,12 @@
 package com.glvov.springaimcpclient.functional;
 
+import com.glvov.springaimcpclient.config.ChatRequestProperties;
 import com.glvov.springaimcpclient.mcp.McpServerNotificationHandler;
+import com.glvov.springaimcpclient.mcp.McpToolCatalog;
+import com.glvov.springaimcpclient.mcp.ParallelToolCallingManager;
+import com.glvov.springaimcpclient.mcp.ProgressEventBus;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,14 +21,16 @@ import org.springframework.ai.model.tool.DefaultToolCallingManager;
 import org.springframework.ai.ollama.OllamaChatModel;
 import org.springframework.ai.ollama.api.OllamaApi;
 import org.springframework.ai.tool.ToolCallback;
-import org.springframework.ai.tool.ToolCallbackProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.event.ApplicationStartedEvent;
 import org.springframework.context.ApplicationListener;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
 
+import java.io.PrintStream;
 import java.util.Map;
-import java.util.Random;
+import java.util.UUID;
 
 /**
  * Full flow of the request:
@@ -65,7 +73,8 @@ import java.util.Random;
  * </code></pre>
  * <br/>
  * 4.2 Then the {@link OllamaApi.ChatRequest} is created for the Ollama LLM containing information
- * about available MCP Server tools, which we connected to this project, e.g. via application.yaml:
+ * about available MCP Server tools, which we connected to this project, e.g. via application.yaml.
+ * The tools are taken from {@link McpToolCatalog}, only those listed in {@code chat.request.tools}, if any:
  * <br/>
  * <pre><code>
  *   ChatRequest(
@@ -125,6 +134,8 @@ import java.util.Random;
  * </code></pre>
  * Internally, {@code executeToolCall} creates {@link ToolCallback} objects (tools) and
  * executes the {@link ToolCallback#call} method, in our case is the {@link SyncMcpToolCallback#call}.
+ * When the response contains several tool calls, {@link ParallelToolCallingManager} passes each of them
+ * to {@code executeToolCalls} on its own thread, and the sections 6 - 6.2 run for all of them at once.
  * <br/>
  * <br/>
  * 6. {@link SyncMcpToolCallback#call}
@@ -195,6 +206,7 @@ import java.util.Random;
  * It is detected, that no other calls to the tools are required and the final chat result is returned to the caller.
  */
 @Component
+@ConditionalOnProperty(prefix = "load-driver", name = "enabled", havingValue = "false", matchIfMissing = true)
 @Slf4j
 @RequiredArgsConstructor
 public class ChatRequestSender implements ApplicationListener<ApplicationStartedEvent> {
@@ -207,7 +219,14 @@ public class ChatRequestSender implements ApplicationListener<ApplicationStarted
     private final ChatClient chatClient;
 
     // Contains all registered MCP tools from connected servers
-    private final ToolCallbackProvider mcpToolProvider;
+    private final McpToolCatalog mcpToolCatalog;
+
+    private final ProgressEventBus progressEventBus;
+    private final ChatRequestProperties properties;
+    private final ObservationRegistry observationRegistry;
+
+    // the streamed answer goes only here, the log gets the answer of a non-streamed request
+    private final PrintStream chatOutput;
 
 
     @Override
@@ -215,15 +234,56 @@ public class ChatRequestSender implements ApplicationListener<ApplicationStarted
         log.info("Sending request to LLM...");
         log.info("User prompt:\n{}", USER_PROMPT);
 
-        String response = chatClient
+        String progressToken = UUID.randomUUID().toString(); // unique progressToken
+
+        // the root span of the request's trace, the LLM calls, the tool calls and the sampling requests are below it
+        Observation observation = Observation.createNotStarted("chat.request", observationRegistry)
+                .lowCardinalityKeyValue("stream", String.valueOf(properties.stream()));
+
+        if (properties.stream()) {
+            observation.observe(() -> streamResponse(progressToken));
+            return;
+        }
+
+        String response = observation.observe(() -> chatClient
                 .prompt(USER_PROMPT)
-                .toolContext(Map.of("progressToken", "token-" + new Random().nextInt())) // unique progressToken
-                .toolCallbacks(mcpToolProvider)
+                .toolContext(Map.of("progressToken", progressToken))
+                .toolCallbacks(mcpToolCatalog.toolCallbacks(properties.tools()))
                 .call()
-                .content();
+                .content());
 
         log.info("---------------------");
         log.info("Final answer:\n{}", response);
         log.info("---------------------");
     }
+
+    /**
+     * Prints the answer to {@link #chatOutput} token by token as Ollama produces it, interleaved with the progress
+     * notifications of this request's tool calls, so the first output appears long before the whole flow is done.
+     */
+    private void streamResponse(String progressToken) {
+        // both subscribers below must be in place before the request starts, so no early token is missed
+        Flux<String> answer = chatClient
+                .prompt(USER_PROMPT)
+                .toolContext(Map.of("progressToken", progressToken))
+                .toolCallbacks(mcpToolCatalog.toolCallbacks(properties.tools()))
+                .stream()
+                .content()
+                .publish()
+                .autoConnect(2);
+
+        Flux<String> progress = progressEventBus.progressOf(progressToken)
+                .map(notification -> "%n[progress %d%%] %s%n".formatted(
+                        (int) (notification.progress() * 100), notification.message()))
+                .takeUntilOther(answer.then().thenReturn(Boolean.TRUE));
+
+        chatOutput.println("Final answer:");
+        Flux.merge(progress, answer)
+                .doOnNext(output -> {
+                    chatOutput.print(output);
+                    chatOutput.flush();
+                })
+                .blockLast();
+        chatOutput.println();
+    }
 }
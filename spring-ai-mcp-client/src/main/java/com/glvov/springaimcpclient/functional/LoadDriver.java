@@ -0,0 +1,296 @@
+package com.glvov.springaimcpclient.functional;
+
+import com.glvov.springaimcpclient.config.LoadDriverProperties;
+import com.glvov.springaimcpclient.mcp.McpToolCatalog;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Load driver mode of the client, active with {@code load-driver.enabled=true}.
+ * <br>
+ * Sends the prompts from {@code load-driver.prompts-file} through the same {@link ChatClient} and MCP tools as
+ * {@link ChatRequestSender}, each request on its own virtual thread with its own progress token,
+ * bounded by {@code concurrency} and paced by {@code rate-per-second}. Once all requests are done it logs
+ * throughput, error counts and latency percentiles per phase:
+ * <ul>
+ *     <li>{@code request} - the whole chat request</li>
+ *     <li>{@code llm} - the request minus its tool calls, i.e. the time spent in the LLM rounds</li>
+ *     <li>{@code tool} - a single MCP tool call, including the sampling it triggers</li>
+ *     <li>{@code sampling} - a single sampling request answered by the client LLM</li>
+ * </ul>
+ * <pre><code>
+ * java -jar spring-ai-mcp-client.jar --load-driver.enabled=true --load-driver.prompts-file=prompts.txt \
+ *      --load-driver.requests=200 --load-driver.concurrency=16 --load-driver.rate-per-second=2
+ * </code></pre>
+ */
+@Component
+@ConditionalOnProperty(prefix = "load-driver", name = "enabled", havingValue = "true")
+@Slf4j
+public class LoadDriver implements ApplicationListener<ApplicationStartedEvent> {
+
+    private static final String PHASE_TIMER = "load.driver.duration";
+
+    private final ChatClient chatClient;
+    private final McpToolCatalog mcpToolCatalog;
+    private final LoadDriverProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final LongAdder failedRequests = new LongAdder();
+    // failed requests and failed tool calls (prefixed with "tool:") by exception type
+    private final ConcurrentMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+
+    public LoadDriver(ChatClient chatClient,
+                      McpToolCatalog mcpToolCatalog,
+                      LoadDriverProperties properties,
+                      MeterRegistry meterRegistry) {
+        this.chatClient = chatClient;
+        this.mcpToolCatalog = mcpToolCatalog;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void onApplicationEvent(@NonNull ApplicationStartedEvent event) {
+        run();
+    }
+
+    /**
+     * Sends all requests, waits for them to complete and logs the report.
+     */
+    public Result run() {
+        List<String> prompts = readPrompts();
+        int requests = properties.requests() > 0 ? properties.requests() : prompts.size();
+
+        log.info("Load driver: {} requests from {} prompts, concurrency {}, rate {}/s",
+                requests, prompts.size(), properties.concurrency(),
+                properties.ratePerSecond() > 0 ? properties.ratePerSecond() : "unlimited");
+
+        Semaphore inFlight = new Semaphore(properties.concurrency());
+        long intervalNanos = properties.ratePerSecond() > 0 ? (long) (1_000_000_000L / properties.ratePerSecond()) : 0;
+        long start = System.nanoTime();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                pace(start + i * intervalNanos);
+                inFlight.acquireUninterruptibly();
+
+                String prompt = prompts.get(i % prompts.size());
+                executor.submit(() -> {
+                    try {
+                        send(prompt);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        report(requests, elapsed);
+        return new Result(requests, failedRequests.sum(), elapsed);
+    }
+
+    private void send(String prompt) {
+        ToolTime toolTime = new ToolTime();
+        ToolCallback[] tools = Arrays.stream(mcpToolCatalog.toolCallbacks())
+                .map(tool -> new TimedToolCallback(tool, toolTime))
+                .toArray(ToolCallback[]::new);
+
+        long start = System.nanoTime();
+        try {
+            chatClient
+                    .prompt(prompt)
+                    .toolContext(Map.of("progressToken", UUID.randomUUID().toString()))
+                    .toolCallbacks(tools)
+                    .call()
+                    .content();
+
+            long elapsed = System.nanoTime() - start;
+            phaseTimer("request").record(elapsed, TimeUnit.NANOSECONDS);
+            phaseTimer("llm").record(elapsed - toolTime.nanos(), TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            failedRequests.increment();
+            errors.computeIfAbsent(e.getClass().getSimpleName(), name -> new LongAdder()).increment();
+            log.debug("Load driver request failed", e);
+        }
+    }
+
+    private void report(int requests, Duration elapsed) {
+        long failed = failedRequests.sum();
+
+        StringBuilder report = new StringBuilder()
+                .append("%nLoad driver: %d requests in %s, %.2f req/s, %d failed%n".formatted(
+                        requests, elapsed, requests / (elapsed.toMillis() / 1000.0), failed))
+                .append("%-10s %8s %10s %10s %10s%n".formatted("phase", "count", "p50 ms", "p95 ms", "p99 ms"));
+
+        for (String phase : List.of("request", "llm", "tool")) {
+            report.append(formatPhase(phase, meterRegistry.find(PHASE_TIMER).tag("phase", phase).timer()));
+        }
+        report.append(formatPhase("sampling", meterRegistry.find("mcp.sampling.duration").timer()));
+
+        if (!errors.isEmpty()) {
+            Map<String, Long> errorCounts = errors.entrySet().stream()
+                    .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().sum(), Long::sum, TreeMap::new));
+            report.append("errors: ").append(errorCounts).append("%n".formatted());
+        }
+
+        log.info(report.toString());
+    }
+
+    private static String formatPhase(String phase, Timer timer) {
+        if (timer == null || timer.count() == 0) {
+            return "%-10s %8d%n".formatted(phase, 0);
+        }
+
+        ValueAtPercentile[] percentiles = timer.takeSnapshot().percentileValues();
+        return "%-10s %8d %10.1f %10.1f %10.1f%n".formatted(phase, timer.count(),
+                percentiles[0].value(TimeUnit.MILLISECONDS),
+                percentiles[1].value(TimeUnit.MILLISECONDS),
+                percentiles[2].value(TimeUnit.MILLISECONDS));
+    }
+
+    private Timer phaseTimer(String phase) {
+        return Timer.builder(PHASE_TIMER)
+                .tag("phase", phase)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .distributionStatisticExpiry(Duration.ofHours(1))
+                .register(meterRegistry);
+    }
+
+    private List<String> readPrompts() {
+        try (var lines = Files.lines(properties.promptsFile())) {
+            List<String> prompts = lines
+                    .map(String::strip)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .toList();
+            if (prompts.isEmpty()) {
+                throw new IllegalStateException("No prompts in " + properties.promptsFile());
+            }
+            return prompts;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read prompts from " + properties.promptsFile(), e);
+        }
+    }
+
+    private static void pace(long startAtNanos) {
+        long delay = startAtNanos - System.nanoTime();
+        if (delay > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while pacing requests", e);
+            }
+        }
+    }
+
+
+    /**
+     * @param failed requests which ended with an exception, cumulative over all runs of the driver
+     */
+    public record Result(int requests, long failed, Duration elapsed) {
+    }
+
+
+    /**
+     * Time of a request during which at least one of its tool calls was running. The tool calls of one LLM response
+     * run in parallel, so their durations overlap and don't add up.
+     */
+    private static final class ToolTime {
+
+        private int running;
+        private long runningSince;
+        private long nanos;
+
+        synchronized void start() {
+            if (running++ == 0) {
+                runningSince = System.nanoTime();
+            }
+        }
+
+        synchronized void stop() {
+            if (--running == 0) {
+                nanos += System.nanoTime() - runningSince;
+            }
+        }
+
+        synchronized long nanos() {
+            return nanos;
+        }
+    }
+
+    /**
+     * Times every call of the delegate as the {@code tool} phase and adds it to the request's tool time.
+     */
+    private class TimedToolCallback implements ToolCallback {
+
+        private final ToolCallback delegate;
+        private final ToolTime toolTime;
+
+        TimedToolCallback(ToolCallback delegate, ToolTime toolTime) {
+            this.delegate = delegate;
+            this.toolTime = toolTime;
+        }
+
+        @Override
+        public ToolDefinition getToolDefinition() {
+            return delegate.getToolDefinition();
+        }
+
+        @Override
+        public ToolMetadata getToolMetadata() {
+            return delegate.getToolMetadata();
+        }
+
+        @Override
+        public String call(String toolInput) {
+            return call(toolInput, null);
+        }
+
+        @Override
+        public String call(String toolInput, ToolContext toolContext) {
+            long start = System.nanoTime();
+            toolTime.start();
+            try {
+                return toolContext == null ? delegate.call(toolInput) : delegate.call(toolInput, toolContext);
+            } catch (RuntimeException e) {
+                errors.computeIfAbsent("tool:" + e.getClass().getSimpleName(), name -> new LongAdder()).increment();
+                throw e;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                toolTime.stop();
+                phaseTimer("tool").record(elapsed, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
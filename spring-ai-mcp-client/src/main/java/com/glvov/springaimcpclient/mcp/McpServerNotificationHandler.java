@@ -1,5 +1,9 @@
 package com.glvov.springaimcpclient.mcp;
 
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.transport.Kind;
+import io.micrometer.observation.transport.ReceiverContext;
 import io.modelcontextprotocol.spec.McpSchema;
 import io.modelcontextprotocol.spec.McpSchema.CreateMessageRequest;
 import io.modelcontextprotocol.spec.McpSchema.LoggingMessageNotification;
@@ -20,6 +24,9 @@ import org.springframework.stereotype.Service;
 public class McpServerNotificationHandler {
 
     private final ChatClient chatClient;
+    private final SamplingExecutor samplingExecutor;
+    private final ProgressEventBus progressEventBus;
+    private final ObservationRegistry observationRegistry;
 
     /**
      * Handles log notifications from MCP Server
@@ -30,15 +37,19 @@ public class McpServerNotificationHandler {
     }
 
     /**
-     * Handles progress notifications from MCP Server
+     * Handles progress notifications from MCP Server and publishes them to {@link ProgressEventBus},
+     * which shows them to the user, so they are logged on DEBUG only.
      */
     @McpProgress(clients = "my-weather-server")
     public void progressHandler(ProgressNotification progressNotification) {
-        log.info("MCP Server Progress notification received: [{}] progress: {} | message: {}",
-                progressNotification.progressToken(),
-                (int)(progressNotification.progress() * 100) + "% done",
-                progressNotification.message()
-        );
+        if (log.isDebugEnabled()) {
+            log.debug("MCP Server Progress notification received: [{}] progress: {}% done | message: {}",
+                    progressNotification.progressToken(),
+                    (int) (progressNotification.progress() * 100),
+                    progressNotification.message()
+            );
+        }
+        progressEventBus.publish(progressNotification);
     }
 
     /**
@@ -46,29 +57,43 @@ public class McpServerNotificationHandler {
      * Handles MCP server requests to the MCP client's LLM to generate content.
      * <br>
      * It demonstrates the bidirectional AI interaction pattern between MCP server and MCP client.
+     * <br>
+     * Requests are run through {@link SamplingExecutor}, so a burst of them doesn't hit the LLM all at once.
+     * <br>
+     * Observed as {@code mcp.sampling.request}, queueing included. The span continues the server's trace
+     * from the request {@code _meta}, and the LLM call is its child.
      */
     @McpSampling(clients = "my-weather-server")
     public McpSchema.CreateMessageResult samplingHandler(CreateMessageRequest llmRequest) {
-        log.info("MCP Server sampling request: {}", llmRequest);
+        log.debug("MCP Server sampling request: {}", llmRequest);
 
         String systemPrompt = llmRequest.systemPrompt();
         TextContent userPrompt = (TextContent) llmRequest.messages().getFirst().content();
 
-        String llmResponse = chatClient
-                .prompt()
-                .system(systemPrompt)
-                .user(userPrompt.text())
-                .options(ChatOptions.builder().maxTokens(100).build())
-                .call()
-                .content();
+        String llmResponse = samplingRequest(llmRequest).observe(() -> samplingExecutor.execute(llmRequest,
+                () -> chatClient
+                        .prompt()
+                        .system(systemPrompt)
+                        .user(userPrompt.text())
+                        .options(ChatOptions.builder().maxTokens(100).build())
+                        .call()
+                        .content()));
 
-        log.info("******************************");
-        log.info("Sampling LLM response:\n{}", llmResponse);
-        log.info("******************************");
+        log.debug("Sampling LLM response:\n{}", llmResponse);
 
         return McpSchema.CreateMessageResult
                 .builder()
                 .content(new TextContent(llmResponse))
                 .build();
     }
+
+    private Observation samplingRequest(CreateMessageRequest llmRequest) {
+        var context = new ReceiverContext<CreateMessageRequest>(
+                (request, key) -> request.meta() != null && request.meta().get(key) instanceof String value ? value : null,
+                Kind.SERVER);
+        context.setCarrier(llmRequest);
+
+        return Observation.createNotStarted("mcp.sampling.request", () -> context, observationRegistry)
+                .contextualName("mcp sampling request");
+    }
 }
@@ -0,0 +1,199 @@
+package com.glvov.springaimcpclient.mcp;
+
+import io.modelcontextprotocol.client.McpSyncClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.mcp.McpToolsChangedEvent;
+import org.springframework.ai.mcp.SyncMcpToolCallbackProvider;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tools of the connected MCP Servers, as passed to the chat requests.
+ * <br>
+ * The catalog is built on first use and kept until an MCP Server announces a change of its tools
+ * ({@code notifications/tools/list_changed}, published as {@link McpToolsChangedEvent}). The tool definitions,
+ * whose JSON schema is otherwise serialized again on every access, are built once per catalog,
+ * and the results of idempotent tools are cached by {@link ToolResultCache}.
+ * <br>
+ * With {@code spring.ai.mcp.client.initialized=false} the MCP connections are not established on startup,
+ * but by the first catalog load, to all MCP Servers in parallel.
+ */
+@Component
+@Slf4j
+public class McpToolCatalog {
+
+    private final List<McpSyncClient> mcpClients;
+    private final SyncMcpToolCallbackProvider mcpToolProvider;
+    private final ToolResultCache toolResultCache;
+    private final Lock lock = new ReentrantLock();
+    // tool callbacks by tool name, null until loaded
+    private volatile Map<String, ToolCallback> toolCallbacks;
+
+
+    public McpToolCatalog(List<McpSyncClient> mcpClients,
+                          SyncMcpToolCallbackProvider mcpToolProvider,
+                          ToolResultCache toolResultCache) {
+        this.mcpClients = mcpClients;
+        this.mcpToolProvider = mcpToolProvider;
+        this.toolResultCache = toolResultCache;
+    }
+
+    /**
+     * @return all tools of the connected MCP Servers
+     */
+    public ToolCallback[] toolCallbacks() {
+        return catalog().values().toArray(ToolCallback[]::new);
+    }
+
+    /**
+     * Subset of the tools for a prompt that needs only some of them: the fewer tools, the smaller
+     * the tool schema sent to the LLM with every request of the prompt.
+     *
+     * @param toolNames names of the tools, all tools when empty
+     */
+    public ToolCallback[] toolCallbacks(Collection<String> toolNames) {
+        if (toolNames.isEmpty()) {
+            return toolCallbacks();
+        }
+
+        Map<String, ToolCallback> catalog = catalog();
+        return toolNames.stream()
+                .map(toolName -> {
+                    ToolCallback toolCallback = catalog.get(toolName);
+                    if (toolCallback == null) {
+                        log.warn("Unknown MCP tool {}, available: {}", toolName, catalog.keySet());
+                    }
+                    return toolCallback;
+                })
+                .filter(Objects::nonNull)
+                .toArray(ToolCallback[]::new);
+    }
+
+    @EventListener
+    public void onToolsChanged(McpToolsChangedEvent event) {
+        log.info("MCP Server {} changed its tools, reloading the tool catalog", event.getConnectionName());
+        lock.lock();
+        try {
+            // the provider reloads on the same event, but a concurrent catalog load must not see its stale tools
+            mcpToolProvider.invalidateCache();
+            toolCallbacks = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<String, ToolCallback> catalog() {
+        Map<String, ToolCallback> catalog = toolCallbacks;
+        if (catalog != null) {
+            return catalog;
+        }
+
+        lock.lock();
+        try {
+            if (toolCallbacks == null) {
+                toolCallbacks = load();
+            }
+            return toolCallbacks;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<String, ToolCallback> load() {
+        long start = System.nanoTime();
+        connect();
+
+        Map<String, ToolCallback> catalog = new LinkedHashMap<>();
+        Arrays.stream(toolResultCache.wrap(mcpToolProvider.getToolCallbacks()))
+                .map(DefinedToolCallback::new)
+                .forEach(toolCallback -> catalog.put(toolCallback.getToolDefinition().name(), toolCallback));
+
+        log.info("Loaded {} MCP tools in {} ms: {}",
+                catalog.size(), (System.nanoTime() - start) / 1_000_000, catalog.keySet());
+        return Collections.unmodifiableMap(catalog);
+    }
+
+    /**
+     * Initializes the MCP clients not initialized yet, all at once.
+     */
+    private void connect() {
+        List<McpSyncClient> pending = mcpClients.stream()
+                .filter(client -> !client.isInitialized())
+                .toList();
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> connections = pending.stream()
+                    .<Future<?>>map(client -> executor.submit(client::initialize))
+                    .toList();
+            for (Future<?> connection : connections) {
+                connection.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to connect to MCP Server", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while connecting to MCP Servers", e);
+        }
+    }
+
+
+    /**
+     * Tool callback with the tool definition built once.
+     */
+    private static final class DefinedToolCallback implements ToolCallback {
+
+        private final ToolCallback delegate;
+        private final ToolDefinition toolDefinition;
+
+        DefinedToolCallback(ToolCallback delegate) {
+            this.delegate = delegate;
+            this.toolDefinition = delegate.getToolDefinition();
+        }
+
+        @Override
+        @NonNull
+        public ToolDefinition getToolDefinition() {
+            return toolDefinition;
+        }
+
+        @Override
+        @NonNull
+        public ToolMetadata getToolMetadata() {
+            return delegate.getToolMetadata();
+        }
+
+        @Override
+        @NonNull
+        public String call(@NonNull String toolInput) {
+            return delegate.call(toolInput);
+        }
+
+        @Override
+        @NonNull
+        public String call(@NonNull String toolInput, ToolContext toolContext) {
+            return delegate.call(toolInput, toolContext);
+        }
+    }
+}
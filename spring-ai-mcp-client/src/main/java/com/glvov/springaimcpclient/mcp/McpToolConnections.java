@@ -0,0 +1,51 @@
+package com.glvov.springaimcpclient.mcp;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import org.springframework.ai.mcp.DefaultMcpToolNamePrefixGenerator;
+import org.springframework.ai.mcp.McpConnectionInfo;
+import org.springframework.ai.mcp.McpToolNamePrefixGenerator;
+import org.springframework.ai.mcp.client.common.autoconfigure.properties.McpClientCommonProperties;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Names the MCP tools as Spring AI does by default, and remembers the MCP connection each tool name came from,
+ * so that the tool calls the LLM requests by tool name can be attributed to their MCP Server.
+ */
+@Component
+public class McpToolConnections implements McpToolNamePrefixGenerator {
+
+    private final McpToolNamePrefixGenerator delegate = new DefaultMcpToolNamePrefixGenerator();
+    private final String clientNamePrefix;
+    // MCP connection name by the tool name the LLM sees
+    private final Map<String, String> connections = new ConcurrentHashMap<>();
+
+
+    public McpToolConnections(McpClientCommonProperties properties) {
+        // Spring AI names the client of a connection "<spring.ai.mcp.client.name> - <connection name>"
+        this.clientNamePrefix = properties.getName() + " - ";
+    }
+
+    @Override
+    @NonNull
+    public String prefixedToolName(@NonNull McpConnectionInfo connectionInfo, @NonNull McpSchema.Tool tool) {
+        String toolName = delegate.prefixedToolName(connectionInfo, tool);
+        connections.put(toolName, connectionNameOf(connectionInfo.clientInfo()));
+        return toolName;
+    }
+
+    /**
+     * @return name of the MCP connection providing the tool, {@code null} if the tool is not an MCP tool
+     */
+    public String connectionOf(String toolName) {
+        return connections.get(toolName);
+    }
+
+    private String connectionNameOf(McpSchema.Implementation clientInfo) {
+        String clientName = clientInfo.name();
+        return clientName.startsWith(clientNamePrefix) ? clientName.substring(clientNamePrefix.length()) : clientName;
+    }
+}
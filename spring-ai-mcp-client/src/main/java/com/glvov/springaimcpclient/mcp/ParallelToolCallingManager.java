@@ -0,0 +1,181 @@
+package com.glvov.springaimcpclient.mcp;
+
+import com.glvov.springaimcpclient.config.ToolCallProperties;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.AssistantMessage.ToolCall;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.DefaultToolCallingManager;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.ToolExecutionExceptionProcessor;
+import org.springframework.ai.tool.resolution.ToolCallbackResolver;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Runs the tool calls the LLM requests in one response at once, so a response with several tool calls takes
+ * as long as its slowest tool instead of the sum of all of them.
+ * <br>
+ * {@link DefaultToolCallingManager} runs the tool calls one after another. Here each tool call is passed to it
+ * on its own virtual thread, as if the LLM had requested only that call, with the trace context of the caller,
+ * and the tool responses are put back together in the order the LLM requested the calls.
+ * The first failed call, in that order, fails the whole response once all calls are done.
+ * <br>
+ * At most {@code mcp.tool-calls.max-concurrency} tool calls run on an MCP connection at once, over all chat
+ * requests, further calls to its tools wait for a free slot. The limit can be set per connection in
+ * {@code mcp.tool-calls.connections}, see {@link McpToolConnections}.
+ * <br>
+ * The {@link org.springframework.ai.chat.model.ToolContext#TOOL_CALL_HISTORY} passed to a tool contains only
+ * its own tool call in the last assistant message.
+ */
+@Component
+@Slf4j
+public class ParallelToolCallingManager implements ToolCallingManager {
+
+    private final ToolCallingManager delegate;
+    private final ToolCallProperties properties;
+    private final McpToolConnections mcpToolConnections;
+    private final ContextSnapshotFactory contextSnapshotFactory = ContextSnapshotFactory.builder().build();
+    // free tool call slots by MCP connection name
+    private final ConcurrentMap<String, Semaphore> connectionSlots = new ConcurrentHashMap<>();
+
+
+    public ParallelToolCallingManager(ToolCallProperties properties,
+                                      McpToolConnections mcpToolConnections,
+                                      ObservationRegistry observationRegistry,
+                                      ToolCallbackResolver toolCallbackResolver,
+                                      ToolExecutionExceptionProcessor toolExecutionExceptionProcessor) {
+        this.properties = properties;
+        this.mcpToolConnections = mcpToolConnections;
+        this.delegate = DefaultToolCallingManager.builder()
+                .observationRegistry(observationRegistry)
+                .toolCallbackResolver(toolCallbackResolver)
+                .toolExecutionExceptionProcessor(toolExecutionExceptionProcessor)
+                .build();
+    }
+
+    @Override
+    @NonNull
+    public List<ToolDefinition> resolveToolDefinitions(@NonNull ToolCallingChatOptions chatOptions) {
+        return delegate.resolveToolDefinitions(chatOptions);
+    }
+
+    @Override
+    @NonNull
+    public ToolExecutionResult executeToolCalls(@NonNull Prompt prompt, @NonNull ChatResponse chatResponse) {
+        AssistantMessage assistantMessage = chatResponse.getResults().stream()
+                .map(Generation::getOutput)
+                .filter(output -> output != null && output.hasToolCalls())
+                .findFirst()
+                .orElse(null);
+        if (assistantMessage == null) {
+            // fails as there is nothing to call
+            return delegate.executeToolCalls(prompt, chatResponse);
+        }
+
+        List<ToolCall> toolCalls = assistantMessage.getToolCalls();
+        if (toolCalls.size() == 1) {
+            return withConnectionSlot(toolCalls.getFirst(), () -> delegate.executeToolCalls(prompt, chatResponse));
+        }
+
+        log.debug("Executing {} tool calls {}", toolCalls.size(), properties.parallel() ? "in parallel" : "sequentially");
+        List<ToolExecutionResult> results = properties.parallel()
+                ? executeInParallel(prompt, assistantMessage)
+                : toolCalls.stream().map(toolCall -> execute(prompt, assistantMessage, toolCall)).toList();
+
+        List<ToolResponseMessage.ToolResponse> toolResponses = results.stream()
+                .map(result -> (ToolResponseMessage) result.conversationHistory().getLast())
+                .flatMap(toolResponseMessage -> toolResponseMessage.getResponses().stream())
+                .toList();
+
+        // the same history as DefaultToolCallingManager builds: the prompt, the LLM response and the tool responses
+        List<Message> conversationHistory = new ArrayList<>(prompt.getInstructions());
+        conversationHistory.add(assistantMessage);
+        conversationHistory.add(ToolResponseMessage.builder().responses(toolResponses).build());
+
+        return ToolExecutionResult.builder()
+                .conversationHistory(conversationHistory)
+                .returnDirect(results.stream().allMatch(ToolExecutionResult::returnDirect))
+                .build();
+    }
+
+    private List<ToolExecutionResult> executeInParallel(Prompt prompt, AssistantMessage assistantMessage) {
+        try (ExecutorService executor = ContextExecutorService.wrap(
+                Executors.newVirtualThreadPerTaskExecutor(), contextSnapshotFactory)) {
+            List<Future<ToolExecutionResult>> executions = assistantMessage.getToolCalls().stream()
+                    .map(toolCall -> executor.submit(() -> execute(prompt, assistantMessage, toolCall)))
+                    .toList();
+
+            List<ToolExecutionResult> results = new ArrayList<>(executions.size());
+            for (Future<ToolExecutionResult> execution : executions) {
+                results.add(execution.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Tool call failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for tool calls", e);
+        }
+    }
+
+    /**
+     * Executes the tool call as if it was the only one the LLM requested.
+     */
+    private ToolExecutionResult execute(Prompt prompt, AssistantMessage assistantMessage, ToolCall toolCall) {
+        AssistantMessage singleCall = AssistantMessage.builder()
+                .content(assistantMessage.getText())
+                .properties(assistantMessage.getMetadata())
+                .toolCalls(List.of(toolCall))
+                .media(assistantMessage.getMedia())
+                .build();
+
+        return withConnectionSlot(toolCall,
+                () -> delegate.executeToolCalls(prompt, new ChatResponse(List.of(new Generation(singleCall)))));
+    }
+
+    private ToolExecutionResult withConnectionSlot(ToolCall toolCall, Supplier<ToolExecutionResult> execution) {
+        String connectionName = mcpToolConnections.connectionOf(toolCall.name());
+        if (connectionName == null) {
+            return execution.get();
+        }
+
+        Semaphore slots = connectionSlots.computeIfAbsent(connectionName,
+                name -> new Semaphore(properties.maxConcurrencyOf(name), true));
+        try {
+            slots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a tool call slot of " + connectionName, e);
+        }
+        try {
+            return execution.get();
+        } finally {
+            slots.release();
+        }
+    }
+}
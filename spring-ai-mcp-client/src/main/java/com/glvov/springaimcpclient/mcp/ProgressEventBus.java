@@ -0,0 +1,34 @@
+package com.glvov.springaimcpclient.mcp;
+
+import io.modelcontextprotocol.spec.McpSchema.ProgressNotification;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+
+/**
+ * Fan-out of MCP Server progress notifications to whoever is streaming the request they belong to.
+ * <br>
+ * Notifications are not buffered: a subscriber sees only the notifications published after it subscribed,
+ * and notifications nobody listens to are dropped.
+ */
+@Component
+public class ProgressEventBus {
+
+    private final Sinks.Many<ProgressNotification> sink = Sinks.many().multicast().directBestEffort();
+
+
+    public void publish(ProgressNotification notification) {
+        // notifications of concurrent tool calls arrive on different threads
+        sink.emitNext(notification, Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+    }
+
+    /**
+     * @return notifications carrying the given progress token
+     */
+    public Flux<ProgressNotification> progressOf(Object progressToken) {
+        return sink.asFlux()
+                .filter(notification -> progressToken.equals(notification.progressToken()));
+    }
+}
@@ -0,0 +1,211 @@
+package com.glvov.springaimcpclient.mcp;
+
+import com.glvov.springaimcpclient.config.SamplingExecutorProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.modelcontextprotocol.spec.McpError;
+import io.modelcontextprotocol.spec.McpSchema.CreateMessageRequest;
+import io.modelcontextprotocol.spec.McpSchema.ModelPreferences;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Runs sampling requests with at most {@code sampling.executor.max-concurrency} of them hitting the LLM at once.
+ * <br>
+ * A burst of sampling requests beyond the limit waits in a bounded queue instead of overloading the model.
+ * The queue is ordered by the request's {@link ModelPreferences#speedPriority()} (higher first, FIFO among equal
+ * priorities), and a request arriving at a full queue is rejected right away with an {@link McpError},
+ * so the server gets an error response instead of waiting for its sampling deadline.
+ * <br>
+ * The {@code @McpSampling} handler wraps the rejection, so the server receives a generic internal error, and only
+ * the messages of the causes survive, in the error data. The rejection message therefore starts with
+ * {@link #OVERLOADED_MESSAGE}, which the server recognizes to fall back to a response without the poem.
+ * <br>
+ * The sampling itself runs on the caller's thread, the executor only decides when it may start.
+ */
+@Component
+@Slf4j
+public class SamplingExecutor {
+
+    /**
+     * JSON-RPC error code of a rejected sampling request, from the range reserved for implementation-defined errors.
+     */
+    public static final int OVERLOADED_CODE = -32001;
+    /**
+     * Start of the message of a rejected sampling request, the MCP Server looks for it in the error it receives.
+     */
+    public static final String OVERLOADED_MESSAGE = "Sampling overloaded";
+
+    private static final double DEFAULT_PRIORITY = 0.5;
+    // percentiles over a window as long as the load driver's phase timers, which its report puts them next to
+    private static final Duration PERCENTILES_EXPIRY = Duration.ofHours(1);
+
+    private final SamplingExecutorProperties properties;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Ticket> queue = new PriorityQueue<>(
+            Comparator.comparingDouble(Ticket::priority).reversed().thenComparingLong(Ticket::sequence));
+    private final Timer queueWait;
+    private final Timer samplingDuration;
+    private final Counter rejected;
+    private long sequence;
+    private int running;
+
+
+    public SamplingExecutor(SamplingExecutorProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+
+        this.queueWait = Timer.builder("mcp.sampling.queue.wait")
+                .description("Time a sampling request waited for a free LLM slot")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .distributionStatisticExpiry(PERCENTILES_EXPIRY)
+                .register(meterRegistry);
+        this.samplingDuration = Timer.builder("mcp.sampling.duration")
+                .description("Time the LLM took to answer a sampling request")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .distributionStatisticExpiry(PERCENTILES_EXPIRY)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("mcp.sampling.rejected")
+                .description("Sampling requests rejected because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("mcp.sampling.queue.depth", this, SamplingExecutor::queueDepth)
+                .register(meterRegistry);
+        Gauge.builder("mcp.sampling.active", this, SamplingExecutor::activeCount)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Waits for a free slot, then runs {@code sampling} on the calling thread.
+     *
+     * @throws McpError with {@link #OVERLOADED_CODE} if the queue is full
+     */
+    public <T> T execute(CreateMessageRequest request, Supplier<T> sampling) {
+        acquire(priorityOf(request));
+        try {
+            return samplingDuration.record(sampling);
+        } finally {
+            release();
+        }
+    }
+
+    public int queueDepth() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int activeCount() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquire(double priority) {
+        long start = System.nanoTime();
+
+        lock.lock();
+        try {
+            if (running < properties.maxConcurrency() && queue.isEmpty()) {
+                running++;
+                queueWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return;
+            }
+
+            if (queue.size() >= properties.queueCapacity()) {
+                rejected.increment();
+                log.warn("Sampling request rejected, {} requests are running and {} are queued",
+                        running, queue.size());
+                throw McpError.builder(OVERLOADED_CODE)
+                        .message(OVERLOADED_MESSAGE + ": the sampling queue is full, try again later")
+                        .data(Map.of("queueCapacity", properties.queueCapacity()))
+                        .build();
+            }
+
+            Ticket ticket = new Ticket(priority, sequence++, lock.newCondition());
+            queue.add(ticket);
+            try {
+                while (!ticket.admitted) {
+                    ticket.condition.await();
+                }
+            } catch (InterruptedException e) {
+                if (ticket.admitted) {
+                    running--;
+                    admitNext();
+                } else {
+                    queue.remove(ticket);
+                }
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a sampling slot", e);
+            }
+            queueWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            running--;
+            admitNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // must be called holding the lock
+    private void admitNext() {
+        Ticket next = queue.poll();
+        if (next != null) {
+            next.admitted = true;
+            running++;
+            next.condition.signal();
+        }
+    }
+
+    private static double priorityOf(CreateMessageRequest request) {
+        ModelPreferences preferences = request.modelPreferences();
+        return preferences != null && preferences.speedPriority() != null
+                ? preferences.speedPriority()
+                : DEFAULT_PRIORITY;
+    }
+
+
+    private static final class Ticket {
+
+        private final double priority;
+        private final long sequence;
+        private final Condition condition;
+        private boolean admitted;
+
+        private Ticket(double priority, long sequence, Condition condition) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.condition = condition;
+        }
+
+        double priority() {
+            return priority;
+        }
+
+        long sequence() {
+            return sequence;
+        }
+    }
+}
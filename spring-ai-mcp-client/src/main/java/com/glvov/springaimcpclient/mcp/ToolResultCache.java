@@ -0,0 +1,195 @@
+package com.glvov.springaimcpclient.mcp;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.glvov.springaimcpclient.config.ToolCacheProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.mcp.SyncMcpToolCallback;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Client-side cache of MCP tool results, so that identical tool calls the LLM makes within a conversation
+ * or across concurrent prompts don't all go over the network to the MCP Server.
+ * <br>
+ * {@link #wrap} decorates the callbacks of the tools declared {@code idempotent} in {@code mcp.tool-cache.tools}.
+ * A call is keyed on the tool name and its arguments parsed as JSON, so the order of the arguments and
+ * the whitespace don't matter, and its result is reused for the tool's {@code ttl}. Only successful results
+ * are cached, and at most {@code max-size} of them, the least recently used one is evicted first.
+ * <br>
+ * The tool context (e.g. the progress token) is not part of the key: a call served from the cache sends
+ * no request, and so gets no progress notifications from the MCP Server.
+ */
+@Component
+@Slf4j
+public class ToolResultCache {
+
+    private final ToolCacheProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Clock clock = Clock.systemUTC();
+    private final Map<Key, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+
+    public ToolResultCache(ToolCacheProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > properties.maxSize();
+            }
+        };
+
+        FunctionCounter.builder("mcp.tool.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("mcp.tool.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("mcp.tool.cache.size", this, ToolResultCache::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the callbacks, those of the cached tools decorated with the cache;
+     * the callbacks themselves when the cache is disabled
+     */
+    public ToolCallback[] wrap(ToolCallback[] callbacks) {
+        if (!properties.enabled()) {
+            return callbacks;
+        }
+        return Arrays.stream(callbacks)
+                .map(callback -> {
+                    ToolCacheProperties.Tool policy = policyOf(callback);
+                    return policy != null && policy.idempotent() ? new CachingToolCallback(callback, policy) : callback;
+                })
+                .toArray(ToolCallback[]::new);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private ToolCacheProperties.Tool policyOf(ToolCallback callback) {
+        ToolCacheProperties.Tool policy = properties.tools().get(callback.getToolDefinition().name());
+        if (policy == null && callback instanceof SyncMcpToolCallback mcpCallback) {
+            // the tool name the LLM sees is prefixed when several MCP Servers expose a tool with the same name
+            policy = properties.tools().get(mcpCallback.getOriginalToolName());
+        }
+        return policy;
+    }
+
+    private String get(Key key) {
+        Instant now = clock.instant();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt().isAfter(now)) {
+                hits.increment();
+                return entry.result();
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    private synchronized void put(Key key, String result, Instant expiresAt) {
+        entries.put(key, new Entry(result, expiresAt));
+    }
+
+    /**
+     * @return the key of the call or {@code null} when the arguments are not valid JSON, then the call isn't cached
+     */
+    private Key keyOf(String toolName, String toolInput) {
+        try {
+            // JSON objects are equal regardless of the order of their fields
+            return new Key(toolName, objectMapper.readTree(toolInput));
+        } catch (JsonProcessingException e) {
+            log.debug("Not caching {} call with malformed arguments: {}", toolName, toolInput);
+            return null;
+        }
+    }
+
+
+    private record Key(String toolName, JsonNode arguments) {
+    }
+
+    private record Entry(String result, Instant expiresAt) {
+    }
+
+    private class CachingToolCallback implements ToolCallback {
+
+        private final ToolCallback delegate;
+        private final ToolCacheProperties.Tool policy;
+        private final String toolName;
+
+        CachingToolCallback(ToolCallback delegate, ToolCacheProperties.Tool policy) {
+            this.delegate = delegate;
+            this.policy = policy;
+            this.toolName = delegate.getToolDefinition().name();
+        }
+
+        @Override
+        @NonNull
+        public ToolDefinition getToolDefinition() {
+            return delegate.getToolDefinition();
+        }
+
+        @Override
+        @NonNull
+        public ToolMetadata getToolMetadata() {
+            return delegate.getToolMetadata();
+        }
+
+        @Override
+        @NonNull
+        public String call(@NonNull String toolInput) {
+            return cached(toolInput, () -> delegate.call(toolInput));
+        }
+
+        @Override
+        @NonNull
+        public String call(@NonNull String toolInput, ToolContext toolContext) {
+            return cached(toolInput, () -> delegate.call(toolInput, toolContext));
+        }
+
+        private String cached(String toolInput, Supplier<String> call) {
+            Key key = keyOf(toolName, toolInput);
+            if (key == null) {
+                return call.get();
+            }
+
+            String cached = get(key);
+            if (cached != null) {
+                log.debug("Tool result cache hit: {} {}", key.toolName(), toolInput);
+                return cached;
+            }
+
+            // a failed call throws, so only successful results get here
+            String result = call.get();
+            put(key, result, clock.instant().plus(policy.ttl()));
+            return result;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.glvov.springaimcpclient.functional;
+
+import com.glvov.springaimcpclient.config.LoadDriverProperties;
+import com.glvov.springaimcpclient.mcp.McpToolCatalog;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Offline end-to-end load test of the full flow, see {@link FullFlowTestSupport}.
+ * <br>
+ * The requests are sent with {@link LoadDriver}, which logs throughput and per-phase latency percentiles.
+ * Without injected errors every request must succeed. Not part of the regular test run, build the server
+ * and run it explicitly:
+ * <pre><code>
+ * mvn -pl spring-ai-mcp-server -am install -DskipTests
+ * mvn -pl spring-ai-mcp-client test -Dtest=FullFlowLoadBenchmark -De2e.requests=200 -De2e.concurrency=16 \
+ *     -De2e.ollama.latency-ms=200 -De2e.open-meteo.latency-ms=50 -De2e.ollama.error-rate=0.01
+ * </code></pre>
+ */
+@Slf4j
+class FullFlowLoadBenchmark extends FullFlowTestSupport {
+
+    private static final int REQUESTS = Integer.getInteger("e2e.requests", 50);
+    private static final int CONCURRENCY = Integer.getInteger("e2e.concurrency", 8);
+    private static final double RATE_PER_SECOND = Double.parseDouble(System.getProperty("e2e.rate-per-second", "0"));
+
+    @Autowired
+    private ChatClient chatClient;
+
+    @Autowired
+    private McpToolCatalog mcpToolCatalog;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+
+    @DynamicPropertySource
+    static void loggingProperties(DynamicPropertyRegistry registry) {
+        registry.add("logging.level.com.glvov.springaimcpclient.functional.FullFlowLoadBenchmark", () -> "INFO");
+    }
+
+    @Test
+    void fullFlowUnderLoad() {
+        var properties = new LoadDriverProperties(true, Path.of("prompts.txt"), REQUESTS, CONCURRENCY, RATE_PER_SECOND);
+
+        LoadDriver.Result result = new LoadDriver(chatClient, mcpToolCatalog, properties, meterRegistry).run();
+
+        // the throughput and latencies are in the LoadDriver report
+        log.info("Stub requests: ollama {}, open-meteo {}", ollama.requestCount(), openMeteo.requestCount());
+
+        assertThat(result.requests()).isEqualTo(REQUESTS);
+        if (OPEN_METEO_ERROR_RATE == 0 && OLLAMA_ERROR_RATE == 0) {
+            assertThat(result.failed()).as("failed requests").isZero();
+        }
+        assertThat(ollama.requestCount()).isPositive();
+        assertThat(openMeteo.requestCount()).isPositive();
+    }
+}
@@ -0,0 +1,160 @@
+package com.glvov.springaimcpclient.functional;
+
+import com.glvov.springaimcp.stub.OpenMeteoStubServer;
+import com.glvov.springaimcpclient.stub.OllamaStubServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Offline end-to-end setup of the full flow: chat request -> Ollama tool call -> MCP tool call ->
+ * OpenMeteo -> sampling -> final answer, with local stand-ins for OpenMeteo and Ollama.
+ * <br>
+ * The MCP server runs as a separate process from its built jar (it is on a different Spring Boot line than
+ * the client), started once per test class, the client runs in this JVM. The tests are skipped when the jar
+ * hasn't been built:
+ * <pre><code>
+ * mvn -pl spring-ai-mcp-server -am install -DskipTests
+ * </code></pre>
+ */
+@SpringBootTest
+@AutoConfigureObservability // tracing, so the trace context travels client -> server -> client as in production
+@DirtiesContext // the server of the context is stopped after the test class
+abstract class FullFlowTestSupport {
+
+    private static final Path SERVER_JAR = Path.of(System.getProperty("e2e.server-jar",
+            "../spring-ai-mcp-server/target/spring-ai-mcp-server-0.0.1-SNAPSHOT-exec.jar"));
+    private static final Duration SERVER_STARTUP_TIMEOUT = Duration.ofSeconds(60);
+    private static final Duration SERVER_SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    protected static final double OPEN_METEO_ERROR_RATE =
+            Double.parseDouble(System.getProperty("e2e.open-meteo.error-rate", "0"));
+    protected static final double OLLAMA_ERROR_RATE =
+            Double.parseDouble(System.getProperty("e2e.ollama.error-rate", "0"));
+
+    protected static OpenMeteoStubServer openMeteo;
+    protected static OllamaStubServer ollama;
+    private static Process server;
+    private static int serverPort;
+
+
+    @BeforeAll
+    static void startStubsAndServer() throws Exception {
+        assumeTrue(Files.exists(SERVER_JAR),
+                "MCP server jar not found at %s, build it with: mvn -pl spring-ai-mcp-server -am install -DskipTests"
+                        .formatted(SERVER_JAR));
+
+        openMeteo = OpenMeteoStubServer.start()
+                .latency(Duration.ofMillis(Long.getLong("e2e.open-meteo.latency-ms", 20)))
+                .errorRate(OPEN_METEO_ERROR_RATE);
+        ollama = OllamaStubServer.start()
+                .latency(Duration.ofMillis(Long.getLong("e2e.ollama.latency-ms", 100)))
+                .errorRate(OLLAMA_ERROR_RATE);
+
+        serverPort = freePort();
+        Path serverLog = Path.of("target", "e2e-server.log");
+        Files.createDirectories(serverLog.getParent());
+
+        server = new ProcessBuilder(
+                ProcessHandle.current().info().command().orElse("java"),
+                "-jar", SERVER_JAR.toString(),
+                "--server.port=" + serverPort,
+                "--open-meteo.base-url=" + openMeteo.baseUrl(),
+                "--open-meteo.http-version=HTTP_1_1",
+                "--management.tracing.sampling.probability=1.0",
+                "--logging.level.root=WARN")
+                .redirectErrorStream(true)
+                .redirectOutput(serverLog.toFile())
+                .start();
+
+        awaitServerHealth();
+    }
+
+    @AfterAll
+    static void stopStubsAndServer() throws InterruptedException {
+        if (server != null) {
+            server.destroy();
+            if (!server.waitFor(SERVER_SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                server.destroyForcibly().waitFor();
+            }
+        }
+        if (ollama != null) {
+            ollama.close();
+        }
+        if (openMeteo != null) {
+            openMeteo.close();
+        }
+    }
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.ai.ollama.base-url", () -> ollama.baseUrl());
+        registry.add("spring.ai.mcp.client.streamable-http.connections.my-weather-server.url",
+                () -> "http://localhost:" + serverPort);
+        registry.add("management.tracing.sampling.probability", () -> "1.0"); // every request traced end to end
+        registry.add("logging.level.root", () -> "WARN");
+        registry.add("logging.level.com.glvov", () -> "WARN");
+        registry.add("logging.level.com.glvov.springaimcpclient.functional.LoadDriver", () -> "INFO");
+    }
+
+    /**
+     * @return sum of the server's Prometheus samples of {@code metric} whose labels contain {@code label},
+     * e.g. {@code reason="deadline"}
+     */
+    protected static double serverMetric(String metric, String label) throws IOException, InterruptedException {
+        HttpRequest prometheus = HttpRequest.newBuilder(
+                URI.create("http://localhost:%d/actuator/prometheus".formatted(serverPort))).build();
+        String samples = HttpClient.newHttpClient().send(prometheus, HttpResponse.BodyHandlers.ofString()).body();
+
+        return samples.lines()
+                .filter(line -> line.startsWith(metric + "{") && line.contains(label))
+                .mapToDouble(line -> Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1)))
+                .sum();
+    }
+
+    private static void awaitServerHealth() throws InterruptedException {
+        HttpClient httpClient = HttpClient.newHttpClient();
+        HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:%d/actuator/health".formatted(serverPort)))
+                .build();
+        long deadline = System.nanoTime() + SERVER_STARTUP_TIMEOUT.toNanos();
+
+        while (System.nanoTime() < deadline) {
+            if (!server.isAlive()) {
+                throw new IllegalStateException("MCP server exited with code %d, see target/e2e-server.log"
+                        .formatted(server.exitValue()));
+            }
+            try {
+                if (httpClient.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(250);
+        }
+        throw new IllegalStateException("MCP server didn't start within " + SERVER_STARTUP_TIMEOUT);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.glvov.springaimcpclient.functional;
+
+import com.glvov.springaimcpclient.mcp.McpToolCatalog;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The full flow with a client that has no capacity for sampling requests: {@code SamplingExecutor} rejects
+ * every one of them, and the server must still answer the tool call, with weather details only.
+ * See {@link FullFlowTestSupport} for the setup, skipped unless the server jar is built.
+ */
+@TestPropertySource(properties = {
+        "sampling.executor.max-concurrency=0",
+        "sampling.executor.queue-capacity=0"
+})
+class SamplingOverloadFullFlowTest extends FullFlowTestSupport {
+
+    @Autowired
+    private ChatClient chatClient;
+
+    @Autowired
+    private McpToolCatalog mcpToolCatalog;
+
+
+    @Test
+    void serverRespondsWithoutPoemWhenClientRejectsSampling() throws Exception {
+        String answer = chatClient.prompt()
+                .user("Check the weather in Thessaloniki (40.6317, 22.9353)")
+                .toolCallbacks(mcpToolCatalog.toolCallbacks(List.of("getTemperature")))
+                .call()
+                .content();
+
+        assertThat(answer).contains("Weather details").doesNotContain("Weather Poem");
+        assertThat(serverMetric("poem_sampling_fallbacks_total", "reason=\"client-overloaded\"")).isPositive();
+        assertThat(serverMetric("poem_sampling_fallbacks_total", "reason=\"client-error\"")).isZero();
+    }
+}
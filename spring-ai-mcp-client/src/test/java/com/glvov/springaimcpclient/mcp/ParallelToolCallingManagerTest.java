@@ -0,0 +1,140 @@
+package com.glvov.springaimcpclient.mcp;
+
+import com.glvov.springaimcpclient.config.ToolCallProperties;
+import io.micrometer.observation.ObservationRegistry;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.AssistantMessage.ToolCall;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.mcp.McpConnectionInfo;
+import org.springframework.ai.mcp.client.common.autoconfigure.properties.McpClientCommonProperties;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.DefaultToolExecutionExceptionProcessor;
+import org.springframework.ai.tool.resolution.StaticToolCallbackResolver;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class ParallelToolCallingManagerTest {
+
+    private final McpToolConnections mcpToolConnections = new McpToolConnections(new McpClientCommonProperties());
+
+
+    @Test
+    void runsToolCallsOfOneResponseAtOnceInTheirOrder() {
+        // neither call returns before the other one has started
+        CyclicBarrier bothRunning = new CyclicBarrier(2);
+        Function<String, String> awaitOther = toolInput -> {
+            try {
+                bothRunning.await(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException("Tool calls did not run at once", e);
+            }
+            return "result of " + toolInput;
+        };
+        var manager = manager(Map.of());
+
+        ToolExecutionResult result = manager.executeToolCalls(
+                prompt(new FunctionToolCallback("getTemperature", awaitOther), new FunctionToolCallback("search", awaitOther)),
+                response(toolCall("1", "search", "{\"query\":\"a\"}"), toolCall("2", "getTemperature", "{\"city\":\"b\"}")));
+
+        var toolResponses = ((ToolResponseMessage) result.conversationHistory().getLast()).getResponses();
+        assertThat(toolResponses)
+                .extracting(ToolResponseMessage.ToolResponse::id, ToolResponseMessage.ToolResponse::name)
+                .containsExactly(tuple("1", "search"), tuple("2", "getTemperature"));
+        assertThat(toolResponses.getFirst().responseData()).contains("{\"query\":\"a\"}");
+        assertThat(result.conversationHistory()).hasSize(3);
+    }
+
+    @Test
+    void limitsToolCallsRunningAtOnceOnAnMcpConnection() {
+        register("weather", "getTemperature");
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        var tool = new FunctionToolCallback("getTemperature", toolInput -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                TimeUnit.MILLISECONDS.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+            return toolInput;
+        });
+        var manager = manager(Map.of("weather", new ToolCallProperties.Connection(2)));
+
+        ToolExecutionResult result = manager.executeToolCalls(prompt(tool), response(
+                toolCall("1", "getTemperature", "{\"city\":\"a\"}"),
+                toolCall("2", "getTemperature", "{\"city\":\"b\"}"),
+                toolCall("3", "getTemperature", "{\"city\":\"c\"}"),
+                toolCall("4", "getTemperature", "{\"city\":\"d\"}")));
+
+        assertThat(((ToolResponseMessage) result.conversationHistory().getLast()).getResponses()).hasSize(4);
+        assertThat(maxRunning.get()).isEqualTo(2);
+    }
+
+
+    private ParallelToolCallingManager manager(Map<String, ToolCallProperties.Connection> connections) {
+        return new ParallelToolCallingManager(
+                new ToolCallProperties(true, 4, connections),
+                mcpToolConnections,
+                ObservationRegistry.NOOP,
+                new StaticToolCallbackResolver(List.of()),
+                DefaultToolExecutionExceptionProcessor.builder().build());
+    }
+
+    private void register(String connectionName, String toolName) {
+        mcpToolConnections.prefixedToolName(
+                McpConnectionInfo.builder()
+                        .clientInfo(new McpSchema.Implementation("spring-ai-mcp-client - " + connectionName, "1.0.0"))
+                        .initializeResult(new McpSchema.InitializeResult(McpSchema.LATEST_PROTOCOL_VERSION,
+                                McpSchema.ServerCapabilities.builder().build(),
+                                new McpSchema.Implementation(connectionName, "1.0.0"), null))
+                        .build(),
+                McpSchema.Tool.builder().name(toolName).build());
+    }
+
+    private static Prompt prompt(ToolCallback... tools) {
+        return new Prompt(new UserMessage("Check the weather"),
+                ToolCallingChatOptions.builder().toolCallbacks(tools).internalToolExecutionEnabled(false).build());
+    }
+
+    private static ChatResponse response(ToolCall... toolCalls) {
+        return new ChatResponse(List.of(new Generation(
+                AssistantMessage.builder().content("").toolCalls(List.of(toolCalls)).build())));
+    }
+
+    private static ToolCall toolCall(String id, String name, String arguments) {
+        return new ToolCall(id, "function", name, arguments);
+    }
+
+
+    private record FunctionToolCallback(String name, Function<String, String> function) implements ToolCallback {
+
+        @Override
+        public ToolDefinition getToolDefinition() {
+            return ToolDefinition.builder().name(name).description(name).inputSchema("{}").build();
+        }
+
+        @Override
+        public String call(String toolInput) {
+            return function.apply(toolInput);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.glvov.springaimcpclient.mcp;
+
+import com.glvov.springaimcpclient.config.SamplingExecutorProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.modelcontextprotocol.spec.McpError;
+import io.modelcontextprotocol.spec.McpSchema.CreateMessageRequest;
+import io.modelcontextprotocol.spec.McpSchema.ModelPreferences;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class SamplingExecutorTest {
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        var executor = new SamplingExecutor(new SamplingExecutorProperties(1, 1), new SimpleMeterRegistry());
+        var release = new CountDownLatch(1);
+
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            threads.submit(() -> executor.execute(request(0.5), () -> block(release)));
+            await().until(() -> executor.activeCount() == 1);
+            threads.submit(() -> executor.execute(request(0.5), () -> "queued"));
+            await().until(() -> executor.queueDepth() == 1);
+
+            assertThatThrownBy(() -> executor.execute(request(0.5), () -> "rejected"))
+                    .isInstanceOfSatisfying(McpError.class, error -> assertThat(error.getJsonRpcError().code())
+                            .isEqualTo(SamplingExecutor.OVERLOADED_CODE))
+                    .hasMessageStartingWith(SamplingExecutor.OVERLOADED_MESSAGE);
+
+            release.countDown();
+        }
+    }
+
+    @Test
+    void admitsHigherSpeedPriorityFirst() throws Exception {
+        var executor = new SamplingExecutor(new SamplingExecutorProperties(1, 10), new SimpleMeterRegistry());
+        var release = new CountDownLatch(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            threads.submit(() -> executor.execute(request(0.5), () -> block(release)));
+            await().until(() -> executor.activeCount() == 1);
+            threads.submit(() -> executor.execute(request(0.1), () -> order.add("low")));
+            await().until(() -> executor.queueDepth() == 1);
+            threads.submit(() -> executor.execute(request(0.9), () -> order.add("high")));
+            await().until(() -> executor.queueDepth() == 2);
+
+            release.countDown();
+        }
+
+        assertThat(order).containsExactly("high", "low");
+    }
+
+    private static CreateMessageRequest request(double speedPriority) {
+        return CreateMessageRequest.builder()
+                .messages(List.of())
+                .modelPreferences(ModelPreferences.builder().speedPriority(speedPriority).build())
+                .build();
+    }
+
+    private static String block(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+            return "done";
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.glvov.springaimcpclient.mcp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.glvov.springaimcpclient.config.ToolCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ToolResultCacheTest {
+
+    private final ToolResultCache cache = new ToolResultCache(
+            new ToolCacheProperties(true, 2, Map.of(
+                    "getTemperature", new ToolCacheProperties.Tool(true, Duration.ofMinutes(1)),
+                    "sendEmail", new ToolCacheProperties.Tool(false, Duration.ofMinutes(1)))),
+            new ObjectMapper(),
+            new SimpleMeterRegistry());
+
+
+    @Test
+    void reusesResultOfIdenticalCallRegardlessOfArgumentOrder() {
+        var tool = new CountingToolCallback("getTemperature");
+        ToolCallback cached = cache.wrap(new ToolCallback[]{tool})[0];
+
+        String first = cached.call("{\"latitude\":40.63,\"longitude\":22.94}", new ToolContext(Map.of("progressToken", "1")));
+        String second = cached.call("{ \"longitude\": 22.94, \"latitude\": 40.63 }", new ToolContext(Map.of("progressToken", "2")));
+        cached.call("{\"latitude\":52.52,\"longitude\":13.41}");
+
+        assertThat(second).isEqualTo(first);
+        assertThat(tool.calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void leavesNonIdempotentAndUnlistedToolsUncachedAndEvictsBySize() {
+        var sendEmail = new CountingToolCallback("sendEmail");
+        var search = new CountingToolCallback("search");
+        var getTemperature = new CountingToolCallback("getTemperature");
+        ToolCallback[] wrapped = cache.wrap(new ToolCallback[]{sendEmail, search, getTemperature});
+
+        assertThat(wrapped[0]).isSameAs(sendEmail);
+        assertThat(wrapped[1]).isSameAs(search);
+
+        for (String city : new String[]{"{\"city\":\"a\"}", "{\"city\":\"b\"}", "{\"city\":\"c\"}", "{\"city\":\"a\"}"}) {
+            wrapped[2].call(city);
+        }
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(getTemperature.calls.get()).isEqualTo(4);
+    }
+
+
+    private static final class CountingToolCallback implements ToolCallback {
+
+        private final ToolDefinition definition;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        CountingToolCallback(String name) {
+            this.definition = ToolDefinition.builder().name(name).description(name).inputSchema("{}").build();
+        }
+
+        @Override
+        public ToolDefinition getToolDefinition() {
+            return definition;
+        }
+
+        @Override
+        public String call(String toolInput) {
+            return "result " + calls.incrementAndGet() + " of " + toolInput;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.glvov.springaimcpclient.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the Ollama {@code /api/chat} endpoint, with configurable latency and error rate.
+ * <br>
+ * Plays the three roles the LLM has in the full flow:
+ * <ul>
+ *     <li>a request offering tools, without a tool result yet - answers with a call of the first weather tool</li>
+ *     <li>a request with a tool result - answers with the final text quoting the tool result</li>
+ *     <li>a request without tools (the sampling request) - answers with a short poem</li>
+ * </ul>
+ * Both the blocking ({@code "stream": false}) and the streaming (NDJSON) forms of the API are supported.
+ */
+public class OllamaStubServer implements AutoCloseable {
+
+    private static final String POEM = """
+            Hark! The sun doth grace this gentle shore,
+            And mild the breeze that blows from sea to door.""";
+
+    private final HttpServer server;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong requests = new AtomicLong();
+    private volatile Duration latency = Duration.ZERO;
+    private volatile double errorRate;
+
+
+    private OllamaStubServer(HttpServer server) {
+        this.server = server;
+    }
+
+    public static OllamaStubServer start() throws IOException {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        OllamaStubServer stub = new OllamaStubServer(server);
+        server.createContext("/api/chat", stub::handleChat);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        return stub;
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public OllamaStubServer latency(Duration latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    public OllamaStubServer errorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    public long requestCount() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handleChat(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try (exchange) {
+            JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+            sleep(latency);
+
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                send(exchange, 500, "application/json", "{\"error\":\"injected error\"}");
+                return;
+            }
+
+            ObjectNode message = reply(request);
+
+            if (request.path("stream").asBoolean(false)) {
+                send(exchange, 200, "application/x-ndjson", streamedResponse(request, message));
+            } else {
+                send(exchange, 200, "application/json", objectMapper.writeValueAsString(response(request, message, true)));
+            }
+        }
+    }
+
+    private ObjectNode reply(JsonNode request) {
+        JsonNode messages = request.path("messages");
+        JsonNode last = messages.get(messages.size() - 1);
+        JsonNode tools = request.path("tools");
+
+        ObjectNode message = objectMapper.createObjectNode().put("role", "assistant");
+
+        if ("tool".equals(last.path("role").asText())) {
+            return message.put("content", "Here is the current weather for you!\n" + last.path("content").asText());
+        }
+        if (tools.isArray() && !tools.isEmpty()) {
+            message.put("content", "");
+            message.putArray("tool_calls").add(toolCall(tools));
+            return message;
+        }
+        return message.put("content", POEM);
+    }
+
+    private ObjectNode toolCall(JsonNode tools) {
+        List<String> names = tools.findValuesAsText("name");
+        ObjectNode function = objectMapper.createObjectNode();
+        ObjectNode arguments = function.putObject("arguments");
+
+        if (!names.contains("getTemperature") && names.contains("getTemperatures")) {
+            function.put("name", "getTemperatures");
+            ArrayNode locations = arguments.putArray("locations");
+            locations.addObject().put("latitude", 40.6317).put("longitude", 22.9353);
+            locations.addObject().put("latitude", 37.9838).put("longitude", 23.7275);
+        } else {
+            function.put("name", names.contains("getTemperature") ? "getTemperature" : names.getFirst());
+            arguments.put("latitude", 40.6317).put("longitude", 22.9353);
+        }
+
+        ObjectNode toolCall = objectMapper.createObjectNode();
+        toolCall.set("function", function);
+        return toolCall;
+    }
+
+    /**
+     * Text is streamed word by word, a tool call is sent as a single final chunk, like Ollama does.
+     */
+    private String streamedResponse(JsonNode request, ObjectNode message) throws IOException {
+        StringBuilder lines = new StringBuilder();
+
+        if (!message.has("tool_calls")) {
+            for (String word : message.path("content").asText().split("(?<= )")) {
+                ObjectNode chunk = objectMapper.createObjectNode().put("role", "assistant").put("content", word);
+                lines.append(objectMapper.writeValueAsString(response(request, chunk, false))).append('\n');
+            }
+            message = objectMapper.createObjectNode().put("role", "assistant").put("content", "");
+        }
+
+        return lines.append(objectMapper.writeValueAsString(response(request, message, true))).append('\n').toString();
+    }
+
+    private ObjectNode response(JsonNode request, ObjectNode message, boolean done) {
+        ObjectNode response = objectMapper.createObjectNode()
+                .put("model", request.path("model").asText("llama3.2"))
+                .put("created_at", Instant.now().toString());
+        response.set("message", message);
+        response.put("done", done);
+        if (done) {
+            response.put("done_reason", "stop")
+                    .put("total_duration", latency.toNanos())
+                    .put("prompt_eval_count", 10)
+                    .put("eval_count", 10);
+        }
+        return response;
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        if (duration.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.glvov.springaimcpserver.config;
+
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Runs blocking work of MCP tools (e.g. OpenMeteo requests) on virtual threads,
+     * so waiting on the network doesn't hold platform threads.
+     * <br>
+     * The submitting thread's context (the current observation, MDC) is propagated to the task,
+     * so e.g. the OpenMeteo request span is a child of the tool call span.
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService toolExecutor() {
+        return ContextExecutorService.wrap(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("mcp-tool-", 0).factory()),
+                ContextSnapshotFactory.builder().build());
+    }
+}
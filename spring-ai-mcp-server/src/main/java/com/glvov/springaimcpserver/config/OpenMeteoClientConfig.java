@@ -0,0 +1,79 @@
+package com.glvov.springaimcpserver.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.reactive.JdkClientHttpConnector;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.net.http.HttpClient;
+
+/**
+ * Shared HTTP client for the OpenMeteo API.
+ * <br>
+ * A single {@link HttpClient} keeps connections alive between calls (and multiplexes requests over one
+ * connection with HTTP/2), instead of building a new client with a new connection pool on every call.
+ * Both the blocking {@link RestClient} and the non-blocking {@link WebClient} share it,
+ * and so share the {@link RouteConcurrencyLimiter} of its connections.
+ * <br>
+ * Both clients are observed: {@code http.client.requests} (latency, status, a client span per request)
+ * and {@code open.meteo.response.bytes}.
+ */
+@Configuration
+public class OpenMeteoClientConfig {
+
+    private static final String RESPONSE_SIZE = "open.meteo.response.bytes";
+
+    @Bean
+    public HttpClient openMeteoHttpClient(OpenMeteoProperties properties) {
+        return HttpClient.newBuilder()
+                .version(properties.httpVersion())
+                .connectTimeout(properties.connectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    @Bean
+    public RouteConcurrencyLimiter openMeteoRouteConcurrencyLimiter(OpenMeteoProperties properties) {
+        return new RouteConcurrencyLimiter(properties.maxConnectionsPerRoute(), properties.connectionAcquireTimeout());
+    }
+
+    @Bean
+    public RestClient openMeteoRestClient(HttpClient openMeteoHttpClient,
+                                          RouteConcurrencyLimiter openMeteoRouteConcurrencyLimiter,
+                                          OpenMeteoProperties properties,
+                                          ObservationRegistry observationRegistry,
+                                          MeterRegistry meterRegistry) {
+        var requestFactory = new JdkClientHttpRequestFactory(openMeteoHttpClient);
+        requestFactory.setReadTimeout(properties.readTimeout());
+
+        return RestClient.builder()
+                .baseUrl(properties.baseUrl())
+                .requestFactory(requestFactory)
+                .requestInterceptor(openMeteoRouteConcurrencyLimiter)
+                .requestInterceptor(new ResponseSizeRecorder(RESPONSE_SIZE, meterRegistry))
+                .observationRegistry(observationRegistry)
+                .build();
+    }
+
+    @Bean
+    public WebClient openMeteoWebClient(HttpClient openMeteoHttpClient,
+                                        RouteConcurrencyLimiter openMeteoRouteConcurrencyLimiter,
+                                        OpenMeteoProperties properties,
+                                        ObservationRegistry observationRegistry,
+                                        MeterRegistry meterRegistry) {
+        var connector = new JdkClientHttpConnector(openMeteoHttpClient);
+        connector.setReadTimeout(properties.readTimeout());
+
+        return WebClient.builder()
+                .baseUrl(properties.baseUrl())
+                .clientConnector(connector)
+                .filter(openMeteoRouteConcurrencyLimiter)
+                .filter(new ResponseSizeRecorder(RESPONSE_SIZE, meterRegistry))
+                .observationRegistry(observationRegistry)
+                .build();
+    }
+}
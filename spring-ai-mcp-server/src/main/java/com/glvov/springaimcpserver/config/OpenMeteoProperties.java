@@ -0,0 +1,33 @@
+package com.glvov.springaimcpserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Settings of the OpenMeteo API client.
+ *
+ * @param baseUrl                  OpenMeteo API base url
+ * @param httpVersion              preferred HTTP version, {@code HTTP_2} falls back to HTTP/1.1
+ *                                 when the server doesn't support it
+ * @param connectTimeout           max time to establish a connection
+ * @param readTimeout              max time to wait for the response
+ * @param maxConnectionsPerRoute   max number of concurrent requests (and so HTTP/1.1 connections) per host
+ * @param connectionAcquireTimeout max time a request waits for one of the {@code maxConnectionsPerRoute}
+ *                                 to become free before it fails
+ * @param coalescingTimeout        max time a lookup waits for an identical in-flight OpenMeteo request
+ *                                 started by another caller
+ * @param maxLocationsPerRequest   max number of locations fetched with one multi-coordinate request
+ */
+@ConfigurationProperties("open-meteo")
+public record OpenMeteoProperties(@DefaultValue("https://api.open-meteo.com") String baseUrl,
+                                  @DefaultValue("HTTP_2") HttpClient.Version httpVersion,
+                                  @DefaultValue("2s") Duration connectTimeout,
+                                  @DefaultValue("5s") Duration readTimeout,
+                                  @DefaultValue("20") int maxConnectionsPerRoute,
+                                  @DefaultValue("2s") Duration connectionAcquireTimeout,
+                                  @DefaultValue("10s") Duration coalescingTimeout,
+                                  @DefaultValue("100") int maxLocationsPerRequest) {
+}
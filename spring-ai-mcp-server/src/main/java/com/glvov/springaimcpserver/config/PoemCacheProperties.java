@@ -0,0 +1,25 @@
+package com.glvov.springaimcpserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the in-memory cache of poems sampled from the client LLM.
+ *
+ * @param enabled           whether identical sampling requests are served from the cache and coalesced
+ * @param maxSize           max number of cached poems, the least recently used poem is evicted first
+ * @param ttl               lifetime of a cached poem
+ * @param temperatureStep   temperatures (in celsius) are rounded to this step before they become part of the key
+ * @param gridDegrees       size of the grid cell (in degrees) coordinates are snapped to before they become part of the key
+ * @param coalescingTimeout max time a call waits for an identical in-flight sampling request started by another call
+ */
+@ConfigurationProperties("weather.poem-cache")
+public record PoemCacheProperties(@DefaultValue("false") boolean enabled,
+                                  @DefaultValue("1000") int maxSize,
+                                  @DefaultValue("1h") Duration ttl,
+                                  @DefaultValue("1.0") double temperatureStep,
+                                  @DefaultValue("0.1") double gridDegrees,
+                                  @DefaultValue("2m") Duration coalescingTimeout) {
+}
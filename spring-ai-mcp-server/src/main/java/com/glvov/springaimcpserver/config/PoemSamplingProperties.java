@@ -0,0 +1,18 @@
+package com.glvov.springaimcpserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Budget of poem sampling requests sent to the client LLM.
+ * When either limit is hit the tool returns weather-only output instead of waiting for the poem.
+ *
+ * @param deadline              max time a tool call waits for the client's sampling response
+ * @param maxConcurrentRequests max number of sampling requests in flight on this server, across all sessions
+ */
+@ConfigurationProperties("weather.sampling")
+public record PoemSamplingProperties(@DefaultValue("30s") Duration deadline,
+                                     @DefaultValue("500") int maxConcurrentRequests) {
+}
@@ -0,0 +1,28 @@
+package com.glvov.springaimcpserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the background refresh of the most requested locations, ahead of their cache expiration.
+ *
+ * @param enabled       whether hot cells are refreshed, takes effect only together with {@code weather.cache.enabled}
+ * @param trackedCells  max number of cells whose lookups are counted, only the most frequent ones are kept
+ * @param hotCells      max number of the most frequent cells kept refreshed
+ * @param minLookups    min number of lookups of a cell, within about one {@code decay-interval}, to keep it refreshed
+ * @param leadTime      how long before the cache expiration a hot cell is refreshed,
+ *                      should stay below {@code weather.cache.min-ttl}
+ * @param checkInterval how often the hot cells are checked for the upcoming expiration
+ * @param decayInterval how often the lookup counts are halved, so cells nobody asks for anymore cool down
+ */
+@ConfigurationProperties("weather.refresh-ahead")
+public record RefreshAheadProperties(@DefaultValue("false") boolean enabled,
+                                     @DefaultValue("1000") int trackedCells,
+                                     @DefaultValue("100") int hotCells,
+                                     @DefaultValue("3") int minLookups,
+                                     @DefaultValue("10s") Duration leadTime,
+                                     @DefaultValue("5s") Duration checkInterval,
+                                     @DefaultValue("10m") Duration decayInterval) {
+}
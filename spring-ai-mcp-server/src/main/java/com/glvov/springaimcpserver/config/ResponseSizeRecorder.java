@@ -0,0 +1,121 @@
+package com.glvov.springaimcpserver.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the size of the response bodies as they are read, for both the {@code RestClient} and the
+ * {@code WebClient}.
+ * <br>
+ * Latency and status are already recorded by the {@code http.client.requests} observation,
+ * the body size isn't, and {@code Content-Length} is absent from chunked responses.
+ */
+class ResponseSizeRecorder implements ClientHttpRequestInterceptor, ExchangeFilterFunction {
+
+    private final DistributionSummary responseSize;
+
+
+    ResponseSizeRecorder(String name, MeterRegistry meterRegistry) {
+        this.responseSize = DistributionSummary.builder(name)
+                .description("Size of the response bodies")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request,
+                                        byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        return new CountingResponse(execution.execute(request, body));
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return next.exchange(request).map(response -> response.mutate()
+                .body(body -> Flux.defer(() -> {
+                    AtomicLong bytes = new AtomicLong();
+                    return body
+                            .doOnNext(buffer -> bytes.addAndGet(buffer.readableByteCount()))
+                            .doOnComplete(() -> responseSize.record(bytes.get()));
+                }))
+                .build());
+    }
+
+
+    private class CountingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private long bytes;
+        private InputStream body;
+
+        CountingResponse(ClientHttpResponse delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FilterInputStream(delegate.getBody()) {
+                    @Override
+                    public int read() throws IOException {
+                        int read = super.read();
+                        if (read >= 0) {
+                            bytes++;
+                        }
+                        return read;
+                    }
+
+                    @Override
+                    public int read(byte[] buffer, int offset, int length) throws IOException {
+                        int read = super.read(buffer, offset, length);
+                        if (read > 0) {
+                            bytes += read;
+                        }
+                        return read;
+                    }
+                };
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            if (body != null) {
+                responseSize.record(bytes);
+            }
+            delegate.close();
+        }
+    }
+}
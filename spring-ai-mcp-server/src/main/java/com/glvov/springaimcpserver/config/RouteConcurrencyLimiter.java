@@ -0,0 +1,248 @@
+package com.glvov.springaimcpserver.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bounds the number of concurrent requests per route (scheme, host and port), for both the {@code RestClient}
+ * and the {@code WebClient}, which share one limit per route.
+ * <br>
+ * The JDK {@code HttpClient} has no per-route connection limit, over HTTP/1.1 every concurrent request
+ * takes its own connection. Limiting concurrent requests therefore limits the connections per route.
+ * <br>
+ * A request holds its permit until its response body is closed (blocking) or completes (non-blocking),
+ * as the connection stays busy while the body is read. Requests wait for a permit in arrival order,
+ * the blocking ones on their thread, the non-blocking ones without holding any.
+ */
+public class RouteConcurrencyLimiter implements ClientHttpRequestInterceptor, ExchangeFilterFunction {
+
+    private final int maxPerRoute;
+    private final Duration acquireTimeout;
+    private final ConcurrentMap<String, RoutePermits> routes = new ConcurrentHashMap<>();
+
+
+    RouteConcurrencyLimiter(int maxPerRoute, Duration acquireTimeout) {
+        this.maxPerRoute = maxPerRoute;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request,
+                                        byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        String route = routeOf(request.getURI());
+        Permit permit = acquire(route);
+
+        try {
+            return new PermitHoldingResponse(execution.execute(request, body), permit);
+        } catch (IOException | RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        String route = routeOf(request.url());
+
+        return acquireAsync(route).flatMap(permit -> next.exchange(request)
+                .map(response -> response.mutate()
+                        .body(body -> body.doFinally(signal -> permit.release()))
+                        .build())
+                .doOnError(e -> permit.release())
+                .doOnCancel(permit::release));
+    }
+
+    private Permit acquire(String route) throws IOException {
+        RoutePermits permits = permitsOf(route);
+        CompletableFuture<Void> acquired = permits.acquire();
+        try {
+            acquired.get(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            return new Permit(permits);
+        } catch (TimeoutException e) {
+            abandon(permits, acquired);
+            throw noFreeConnection(route);
+        } catch (InterruptedException e) {
+            abandon(permits, acquired);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a connection to " + route);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Permit of " + route + " failed", e.getCause());
+        }
+    }
+
+    private Mono<Permit> acquireAsync(String route) {
+        return Mono.defer(() -> {
+            RoutePermits permits = permitsOf(route);
+            CompletableFuture<Void> acquired = permits.acquire();
+
+            return Mono.fromFuture(acquired, true)
+                    .timeout(acquireTimeout, Mono.error(() -> noFreeConnection(route)))
+                    .doOnError(e -> abandon(permits, acquired))
+                    .doOnCancel(() -> abandon(permits, acquired))
+                    .thenReturn(new Permit(permits));
+        });
+    }
+
+    /**
+     * Stops waiting for a permit, or gives it back when it was granted in the meantime.
+     */
+    private static void abandon(RoutePermits permits, CompletableFuture<Void> acquired) {
+        if (!acquired.cancel(false)) {
+            permits.release();
+        }
+    }
+
+    private RoutePermits permitsOf(String route) {
+        return routes.computeIfAbsent(route, r -> new RoutePermits(maxPerRoute));
+    }
+
+    private IOException noFreeConnection(String route) {
+        return new IOException("No free connection to %s within %s".formatted(route, acquireTimeout));
+    }
+
+    private static String routeOf(URI uri) {
+        return uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+    }
+
+
+    /**
+     * Fair counting semaphore whose waiters are futures, so that they can be awaited with and without blocking.
+     */
+    private static final class RoutePermits {
+
+        private final int maxPermits;
+        private final Queue<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+        private int used;
+
+        RoutePermits(int maxPermits) {
+            this.maxPermits = maxPermits;
+        }
+
+        synchronized CompletableFuture<Void> acquire() {
+            // permits are handed over to waiters directly, so there are no waiters left while a permit is free
+            if (used < maxPermits) {
+                used++;
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<Void> waiter = new CompletableFuture<>();
+            waiters.add(waiter);
+            return waiter;
+        }
+
+        void release() {
+            CompletableFuture<Void> next;
+            synchronized (this) {
+                do {
+                    next = waiters.poll();
+                } while (next != null && next.isDone()); // abandoned waiters
+                if (next == null) {
+                    used--;
+                    return;
+                }
+            }
+            // completed outside the lock, as it runs the waiter's continuation; a waiter abandoned in the meantime
+            // hands the permit over to the next one
+            if (!next.complete(null)) {
+                release();
+            }
+        }
+    }
+
+    /**
+     * Permit of one request, released once however many times its response is closed.
+     */
+    private static final class Permit {
+
+        private final RoutePermits permits;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(RoutePermits permits) {
+            this.permits = permits;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+
+    private static final class PermitHoldingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final Permit permit;
+        private InputStream body;
+
+        PermitHoldingResponse(ClientHttpResponse delegate, Permit permit) {
+            this.delegate = delegate;
+            this.permit = permit;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FilterInputStream(delegate.getBody()) {
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            permit.release();
+                        }
+                    }
+                };
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                permit.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.glvov.springaimcpserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Per-tool limits of concurrent MCP tool calls.
+ *
+ * @param defaultMaxConcurrentCalls limit for tools not listed in {@code maxConcurrentCalls}
+ * @param acquireTimeout            max time a call waits for a free slot before it is rejected
+ * @param maxConcurrentCalls        limits by tool name
+ */
+@ConfigurationProperties("tool-concurrency")
+public record ToolConcurrencyProperties(@DefaultValue("1000") int defaultMaxConcurrentCalls,
+                                        @DefaultValue("1s") Duration acquireTimeout,
+                                        @DefaultValue Map<String, Integer> maxConcurrentCalls) {
+
+    public int maxConcurrentCalls(String toolName) {
+        return maxConcurrentCalls.getOrDefault(toolName, defaultMaxConcurrentCalls);
+    }
+}
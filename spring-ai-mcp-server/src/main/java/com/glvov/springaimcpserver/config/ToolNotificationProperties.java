@@ -0,0 +1,24 @@
+package com.glvov.springaimcpserver.config;
+
+import io.modelcontextprotocol.spec.McpSchema.LoggingLevel;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Budget of the MCP notifications the tools send to a client session.
+ *
+ * @param minLevel            logging notifications below this level are neither formatted nor sent.
+ *                            The session still applies the level the client requested with {@code logging/setLevel}
+ *                            on top of it, but only after the message is built
+ * @param maxLoggingPerSecond max logging notifications per session and second, the rest are dropped
+ * @param progressInterval    min interval between intermediate progress notifications with the same progress value
+ *                            of one progress stream (session and progress token), the repeats in between are dropped.
+ *                            A new progress value, completion and weather details are always sent
+ */
+@ConfigurationProperties("weather.notifications")
+public record ToolNotificationProperties(@DefaultValue("INFO") LoggingLevel minLevel,
+                                         @DefaultValue("20") int maxLoggingPerSecond,
+                                         @DefaultValue("200ms") Duration progressInterval) {
+}
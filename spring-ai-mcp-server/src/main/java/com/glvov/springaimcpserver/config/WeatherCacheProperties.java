@@ -0,0 +1,23 @@
+package com.glvov.springaimcpserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the in-memory weather cache in front of the OpenMeteo API.
+ *
+ * @param enabled     whether weather lookups are served from the cache
+ * @param maxSize     max number of cached grid cells, the least recently used cell is evicted first
+ * @param gridDegrees size of the grid cell (in degrees) coordinates are snapped to
+ * @param minTtl      lower bound of the entry lifetime, used when OpenMeteo reports an already outdated observation
+ * @param maxTtl      upper bound of the entry lifetime, regardless of the observation interval reported by OpenMeteo
+ */
+@ConfigurationProperties("weather.cache")
+public record WeatherCacheProperties(@DefaultValue("true") boolean enabled,
+                                     @DefaultValue("10000") int maxSize,
+                                     @DefaultValue("0.01") double gridDegrees,
+                                     @DefaultValue("30s") Duration minTtl,
+                                     @DefaultValue("15m") Duration maxTtl) {
+}
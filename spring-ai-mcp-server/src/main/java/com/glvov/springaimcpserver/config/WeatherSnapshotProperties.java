@@ -0,0 +1,23 @@
+package com.glvov.springaimcpserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings of the on-disk snapshot of the weather cache, which survives restarts.
+ *
+ * @param enabled            whether cached observations are also written to the snapshot file,
+ *                           takes effect only together with {@code weather.cache.enabled}
+ * @param file               snapshot file, created on startup, recreated when its layout doesn't match the settings
+ * @param maxEntries         max number of stored grid cells, the file size is fixed to about 48 bytes per entry
+ * @param compactionInterval how often expired observations are dropped and the file is flushed to disk
+ */
+@ConfigurationProperties("weather.snapshot")
+public record WeatherSnapshotProperties(@DefaultValue("false") boolean enabled,
+                                        @DefaultValue("weather-snapshot.dat") Path file,
+                                        @DefaultValue("10000") int maxEntries,
+                                        @DefaultValue("5m") Duration compactionInterval) {
+}
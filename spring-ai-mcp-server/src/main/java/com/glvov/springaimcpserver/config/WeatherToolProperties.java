@@ -0,0 +1,14 @@
+package com.glvov.springaimcpserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the weather MCP tools.
+ *
+ * @param streamWeatherProgress whether weather details are sent to the client as a progress notification
+ *                              as soon as they are fetched, before the poem sampling completes
+ */
+@ConfigurationProperties("weather.tool")
+public record WeatherToolProperties(@DefaultValue("false") boolean streamWeatherProgress) {
+}
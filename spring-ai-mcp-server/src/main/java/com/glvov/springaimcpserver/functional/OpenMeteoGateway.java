@@ -1,39 +1,392 @@
 package com.glvov.springaimcpserver.functional;
 
+import com.glvov.springaimcpserver.config.OpenMeteoProperties;
+import com.glvov.springaimcpserver.functional.cache.GeoCell;
+import com.glvov.springaimcpserver.functional.cache.HotCells;
+import com.glvov.springaimcpserver.functional.cache.SingleFlight;
+import com.glvov.springaimcpserver.functional.cache.WeatherCache;
+import com.glvov.springaimcpserver.functional.cache.WeatherSnapshotStore;
+import com.glvov.springaimcpserver.model.Location;
 import com.glvov.springaimcpserver.model.OpenMeteoResponse;
 import com.glvov.springaimcpserver.model.WeatherInfo;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
 
 /**
  * Gateway component for interacting with the OpenMeteo API to fetch weather data.
+ * <br>
+ * Lookups are served from {@link WeatherCache} when possible. On a cache miss OpenMeteo is requested
+ * for the center of the grid cell, so that the cached observation is valid for the whole cell.
+ * Concurrent misses for the same cell are coalesced into a single OpenMeteo request.
+ * <br>
+ * Fetched observations are also written to {@link WeatherSnapshotStore}, when enabled. The cache is warmed up
+ * from the snapshot on startup, and the snapshot is consulted on cache misses before OpenMeteo is requested.
+ * <br>
+ * Every lookup is counted in {@link HotCells}, whose cells {@link WeatherRefresher} keeps refreshed with {@link #refresh}.
+ * <br>
+ * The {@code getWeatherAsync} variants are the non-blocking counterparts used by the async MCP server mode.
  */
 @Component
 @Slf4j
 public class OpenMeteoGateway {
 
-    private static final String OPEN_METEO_FORECAST_URL = "https://api.open-meteo.com/v1/forecast";
+    private static final String OPEN_METEO_FORECAST_PATH = "/v1/forecast";
+
+    private final RestClient openMeteoRestClient;
+    private final WebClient openMeteoWebClient;
+    private final OpenMeteoProperties properties;
+    private final WeatherCache weatherCache;
+    private final WeatherSnapshotStore snapshotStore;
+    private final HotCells hotCells;
+    private final SingleFlight<GeoCell, OpenMeteoResponse.Current> inFlightRequests = new SingleFlight<>();
+
 
+    public OpenMeteoGateway(RestClient openMeteoRestClient,
+                            WebClient openMeteoWebClient,
+                            OpenMeteoProperties properties,
+                            WeatherCache weatherCache,
+                            WeatherSnapshotStore snapshotStore,
+                            HotCells hotCells,
+                            MeterRegistry meterRegistry) {
+        this.openMeteoRestClient = openMeteoRestClient;
+        this.openMeteoWebClient = openMeteoWebClient;
+        this.properties = properties;
+        this.weatherCache = weatherCache;
+        this.snapshotStore = snapshotStore;
+        this.hotCells = hotCells;
+
+        FunctionCounter.builder("open.meteo.requests.coalesced", inFlightRequests, SingleFlight::coalescedCount)
+                .description("Lookups served by an identical in-flight OpenMeteo request")
+                .register(meterRegistry);
+        Gauge.builder("open.meteo.requests.in.flight", inFlightRequests, SingleFlight::inFlightCount)
+                .register(meterRegistry);
+
+        restoreSnapshot();
+    }
 
     public WeatherInfo getWeather(double latitude, double longitude) {
-        String uri = UriComponentsBuilder.fromUriString(OPEN_METEO_FORECAST_URL)
-                .queryParam("latitude", latitude)
-                .queryParam("longitude", longitude)
-                .queryParam("current", "temperature_2m")
-                .toUriString();
+        GeoCell cell = weatherCache.cellOf(latitude, longitude);
+        hotCells.record(cell);
+        OpenMeteoResponse.Current current = cached(cell);
+
+        if (current == null) {
+            current = inFlightRequests.execute(cell, () -> loadCurrent(cell), properties.coalescingTimeout());
+        } else {
+            log.debug("Weather cache hit for location: ({}, {}) -> {}", latitude, longitude, cell);
+        }
+
+        return new WeatherInfo(latitude, longitude, current.temperature_2m());
+    }
+
+    /**
+     * Batch lookup: cache hits are resolved locally, all misses are fetched with
+     * multi-coordinate OpenMeteo requests of up to {@code max-locations-per-request} locations each.
+     *
+     * @return weather info for each location, in the order of {@code locations}
+     */
+    public List<WeatherInfo> getWeather(List<Location> locations) {
+        Map<GeoCell, OpenMeteoResponse.Current> currents = new HashMap<>();
+
+        for (List<GeoCell> chunk : chunks(resolveCached(locations, currents))) {
+            currents.putAll(fetchCurrents(chunk));
+        }
+
+        return toWeatherInfos(locations, currents);
+    }
+
+    /**
+     * Non-blocking variant of {@link #getWeather(double, double)}, the OpenMeteo request is sent with
+     * {@link WebClient}. Blocking and non-blocking lookups of the same cell share one in-flight request.
+     */
+    public Mono<WeatherInfo> getWeatherAsync(double latitude, double longitude) {
+        GeoCell cell = weatherCache.cellOf(latitude, longitude);
+        hotCells.record(cell);
+        OpenMeteoResponse.Current cached = cached(cell);
+
+        Mono<OpenMeteoResponse.Current> current = cached != null
+                ? Mono.just(cached)
+                : loadCurrentAsync(cell);
+
+        return current.map(c -> new WeatherInfo(latitude, longitude, c.temperature_2m()));
+    }
+
+    /**
+     * Non-blocking variant of {@link #getWeather(List)}, chunks are requested concurrently.
+     */
+    public Mono<List<WeatherInfo>> getWeatherAsync(List<Location> locations) {
+        Map<GeoCell, OpenMeteoResponse.Current> currents = new ConcurrentHashMap<>();
+
+        return Flux.fromIterable(chunks(resolveCached(locations, currents)))
+                .flatMap(this::fetchCurrentsAsync)
+                .doOnNext(currents::putAll)
+                .then(Mono.fromSupplier(() -> toWeatherInfos(locations, currents)));
+    }
+
+    /**
+     * Fetches the cells from OpenMeteo regardless of their cached observations and caches the fetched ones,
+     * with multi-coordinate requests of up to {@code max-locations-per-request} cells each.
+     */
+    public void refresh(List<GeoCell> cells) {
+        for (List<GeoCell> chunk : chunks(cells)) {
+            if (chunk.size() == 1) {
+                GeoCell cell = chunk.getFirst();
+                cache(cell, fetchCurrent(cell.latitude(), cell.longitude()));
+            } else {
+                requestCurrents(chunk);
+            }
+        }
+    }
+
+    /**
+     * Puts cached observations of the locations' cells into {@code currents}.
+     *
+     * @return distinct cells missing in the cache
+     */
+    private List<GeoCell> resolveCached(List<Location> locations, Map<GeoCell, OpenMeteoResponse.Current> currents) {
+        Set<GeoCell> misses = new LinkedHashSet<>();
+
+        for (Location location : locations) {
+            GeoCell cell = weatherCache.cellOf(location.latitude(), location.longitude());
+            hotCells.record(cell);
+            if (currents.containsKey(cell) || misses.contains(cell)) {
+                continue;
+            }
+            OpenMeteoResponse.Current current = cached(cell);
+            if (current == null) {
+                misses.add(cell);
+            } else {
+                currents.put(cell, current);
+            }
+        }
+
+        log.debug("Batch weather lookup for {} locations: {} cached, {} to fetch",
+                locations.size(), currents.size(), misses.size());
+
+        return List.copyOf(misses);
+    }
+
+    private List<List<GeoCell>> chunks(List<GeoCell> cells) {
+        int chunkSize = properties.maxLocationsPerRequest();
+        List<List<GeoCell>> chunks = new ArrayList<>();
+        for (int from = 0; from < cells.size(); from += chunkSize) {
+            chunks.add(cells.subList(from, Math.min(from + chunkSize, cells.size())));
+        }
+        return chunks;
+    }
+
+    private List<WeatherInfo> toWeatherInfos(List<Location> locations,
+                                             Map<GeoCell, OpenMeteoResponse.Current> currents) {
+        return locations.stream()
+                .map(location -> {
+                    GeoCell cell = weatherCache.cellOf(location.latitude(), location.longitude());
+                    return new WeatherInfo(location.latitude(), location.longitude(), currents.get(cell).temperature_2m());
+                })
+                .toList();
+    }
+
+    private void restoreSnapshot() {
+        if (!snapshotStore.isEnabled()) {
+            return;
+        }
+        List<WeatherSnapshotStore.Snapshot> snapshots = snapshotStore.snapshots();
+        for (WeatherSnapshotStore.Snapshot snapshot : snapshots) {
+            weatherCache.put(snapshot.cell(), snapshot.current(), snapshot.expiresAt());
+        }
+        log.info("Restored {} weather observations from the snapshot", snapshots.size());
+    }
+
+    /**
+     * @return observation from the cache, otherwise from the snapshot, or {@code null}
+     */
+    private OpenMeteoResponse.Current cached(GeoCell cell) {
+        OpenMeteoResponse.Current current = weatherCache.get(cell);
+        if (current != null) {
+            return current;
+        }
+        return restored(cell, snapshotStore.get(cell));
+    }
+
+    /**
+     * Same as {@link #cached}, but not counted as a cache or snapshot request:
+     * re-checks a cell whose miss was already counted.
+     */
+    private OpenMeteoResponse.Current peekCached(GeoCell cell) {
+        OpenMeteoResponse.Current current = weatherCache.peek(cell);
+        if (current != null) {
+            return current;
+        }
+        return restored(cell, snapshotStore.peek(cell));
+    }
+
+    private OpenMeteoResponse.Current restored(GeoCell cell, WeatherSnapshotStore.Snapshot snapshot) {
+        if (snapshot == null) {
+            return null;
+        }
+        weatherCache.put(cell, snapshot.current(), snapshot.expiresAt());
+        return snapshot.current();
+    }
+
+    private void cache(GeoCell cell, OpenMeteoResponse.Current current) {
+        Instant expiresAt = weatherCache.expiresAt(current);
+        weatherCache.put(cell, current, expiresAt);
+        snapshotStore.put(cell, current, expiresAt);
+    }
 
-        log.info("Requesting OpenMeteo forecast for location: {}", uri);
+    private OpenMeteoResponse.Current loadCurrent(GeoCell cell) {
+        // another flight for the same cell may have completed between the cache miss and this one
+        OpenMeteoResponse.Current cached = peekCached(cell);
+        if (cached != null) {
+            return cached;
+        }
 
-        OpenMeteoResponse response = RestClient.create()
+        OpenMeteoResponse.Current current = fetchCurrent(cell.latitude(), cell.longitude());
+        cache(cell, current);
+        return current;
+    }
+
+    private OpenMeteoResponse.Current fetchCurrent(double latitude, double longitude) {
+        String uri = forecastUri(String.valueOf(latitude), String.valueOf(longitude));
+
+        log.debug("Requesting OpenMeteo forecast for location: {}", uri);
+
+        OpenMeteoResponse response = openMeteoRestClient
                 .get()
                 .uri(uri)
                 .retrieve()
                 .body(OpenMeteoResponse.class);
 
-        log.info("Response from OpenMeteo: {}", response);
+        log.debug("Response from OpenMeteo: {}", response);
+
+        return response.current();
+    }
+
+    /**
+     * OpenMeteo accepts comma-separated coordinates and responds with an array in the same order,
+     * or with a single object when only one location is requested.
+     */
+    private Map<GeoCell, OpenMeteoResponse.Current> fetchCurrents(List<GeoCell> cells) {
+        if (cells.size() == 1) {
+            GeoCell cell = cells.getFirst();
+            return Map.of(cell, inFlightRequests.execute(cell, () -> loadCurrent(cell), properties.coalescingTimeout()));
+        }
+        return requestCurrents(cells);
+    }
+
+    private Map<GeoCell, OpenMeteoResponse.Current> requestCurrents(List<GeoCell> cells) {
+        String uri = forecastUri(cells);
+
+        log.debug("Requesting OpenMeteo forecast for {} locations: {}", cells.size(), uri);
+
+        OpenMeteoResponse[] responses = openMeteoRestClient
+                .get()
+                .uri(uri)
+                .retrieve()
+                .body(OpenMeteoResponse[].class);
+
+        return cacheResponses(cells, responses);
+    }
+
+    private Mono<OpenMeteoResponse.Current> loadCurrentAsync(GeoCell cell) {
+        return Mono.fromFuture(() -> inFlightRequests.executeAsync(cell, () -> {
+            // the same re-check as in loadCurrent
+            OpenMeteoResponse.Current cached = peekCached(cell);
+            return cached != null
+                    ? CompletableFuture.completedFuture(cached)
+                    : fetchCurrentAsync(cell).toFuture();
+        }, properties.coalescingTimeout()));
+    }
+
+    private Mono<OpenMeteoResponse.Current> fetchCurrentAsync(GeoCell cell) {
+        String uri = forecastUri(String.valueOf(cell.latitude()), String.valueOf(cell.longitude()));
+
+        log.debug("Requesting OpenMeteo forecast for location: {}", uri);
+
+        return openMeteoWebClient
+                .get()
+                .uri(uri)
+                .retrieve()
+                .bodyToMono(OpenMeteoResponse.class)
+                .doOnNext(response -> log.debug("Response from OpenMeteo: {}", response))
+                .map(OpenMeteoResponse::current)
+                .doOnNext(current -> cache(cell, current));
+    }
+
+    private Mono<Map<GeoCell, OpenMeteoResponse.Current>> fetchCurrentsAsync(List<GeoCell> cells) {
+        if (cells.size() == 1) {
+            GeoCell cell = cells.getFirst();
+            return loadCurrentAsync(cell).map(current -> Map.of(cell, current));
+        }
+
+        String uri = forecastUri(cells);
+
+        log.debug("Requesting OpenMeteo forecast for {} locations: {}", cells.size(), uri);
+
+        return openMeteoWebClient
+                .get()
+                .uri(uri)
+                .retrieve()
+                .bodyToMono(OpenMeteoResponse[].class)
+                .map(responses -> cacheResponses(cells, responses));
+    }
+
+    private Map<GeoCell, OpenMeteoResponse.Current> cacheResponses(List<GeoCell> cells, OpenMeteoResponse[] responses) {
+        log.debug("Response from OpenMeteo: {}", (Object) responses);
+
+        // the responses are matched to the cells by position, so a short array can't be matched at all
+        int responseCount = responses != null ? responses.length : 0;
+        if (responseCount != cells.size()) {
+            throw new IllegalStateException("OpenMeteo responded with %d forecasts to a request for %d locations"
+                    .formatted(responseCount, cells.size()));
+        }
+
+        Map<GeoCell, OpenMeteoResponse.Current> currents = new HashMap<>();
+        for (int i = 0; i < cells.size(); i++) {
+            OpenMeteoResponse.Current current = responses[i].current();
+            cache(cells.get(i), current);
+            currents.put(cells.get(i), current);
+        }
+        return currents;
+    }
+
+    /**
+     * Package-private for the benchmarks.
+     */
+    String forecastUri(List<GeoCell> cells) {
+        return forecastUri(joinCoordinates(cells, GeoCell::latitude), joinCoordinates(cells, GeoCell::longitude));
+    }
+
+    String forecastUri(String latitude, String longitude) {
+        return UriComponentsBuilder.fromUriString(properties.baseUrl())
+                .path(OPEN_METEO_FORECAST_PATH)
+                .queryParam("latitude", latitude)
+                .queryParam("longitude", longitude)
+                .queryParam("current", "temperature_2m")
+                .toUriString();
+    }
 
-        return new WeatherInfo(latitude, longitude, response.current().temperature_2m());
+    private static String joinCoordinates(List<GeoCell> cells, ToDoubleFunction<GeoCell> coordinate) {
+        return cells.stream()
+                .map(cell -> String.valueOf(coordinate.applyAsDouble(cell)))
+                .collect(Collectors.joining(","));
     }
 }
@@ -0,0 +1,87 @@
+package com.glvov.springaimcpserver.functional;
+
+import com.glvov.springaimcpserver.config.RefreshAheadProperties;
+import com.glvov.springaimcpserver.functional.cache.GeoCell;
+import com.glvov.springaimcpserver.functional.cache.HotCells;
+import com.glvov.springaimcpserver.functional.cache.WeatherCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Refreshes the {@link HotCells} in the background shortly before their cached observation expires,
+ * so lookups of popular locations are served from the cache instead of waiting for OpenMeteo.
+ * <br>
+ * The cache expiration follows the observation {@code interval} reported by OpenMeteo, so a hot cell is requested
+ * about once per observation. Every {@code check-interval} the hot cells expiring within {@code lead-time},
+ * or not cached at all, are fetched with multi-coordinate requests, which keeps the OpenMeteo traffic of the hot cells
+ * at a steady background rate.
+ */
+@Component
+@Slf4j
+public class WeatherRefresher {
+
+    private final RefreshAheadProperties properties;
+    private final HotCells hotCells;
+    private final WeatherCache weatherCache;
+    private final OpenMeteoGateway openMeteoGateway;
+    private final Clock clock = Clock.systemUTC();
+    private final Counter refreshed;
+    private final Counter failed;
+
+
+    public WeatherRefresher(RefreshAheadProperties properties,
+                            HotCells hotCells,
+                            WeatherCache weatherCache,
+                            OpenMeteoGateway openMeteoGateway,
+                            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.hotCells = hotCells;
+        this.weatherCache = weatherCache;
+        this.openMeteoGateway = openMeteoGateway;
+        this.refreshed = refreshedCells(meterRegistry, "success");
+        this.failed = refreshedCells(meterRegistry, "error");
+    }
+
+    @Scheduled(fixedDelayString = "${weather.refresh-ahead.check-interval:5s}")
+    public void refreshExpiring() {
+        if (!hotCells.isEnabled()) {
+            return;
+        }
+
+        Instant refreshBefore = clock.instant().plus(properties.leadTime());
+        List<GeoCell> cells = hotCells.top().stream()
+                .filter(cell -> {
+                    Instant expiresAt = weatherCache.expiration(cell);
+                    return expiresAt == null || expiresAt.isBefore(refreshBefore);
+                })
+                .toList();
+
+        if (cells.isEmpty()) {
+            return;
+        }
+
+        try {
+            openMeteoGateway.refresh(cells);
+            refreshed.increment(cells.size());
+            log.debug("Refreshed {} hot cells ahead of expiration", cells.size());
+        } catch (RuntimeException e) {
+            failed.increment(cells.size());
+            log.warn("Failed to refresh {} hot cells, will retry in {}: {}",
+                    cells.size(), properties.checkInterval(), e.toString());
+        }
+    }
+
+    private static Counter refreshedCells(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("weather.refresh.ahead.cells")
+                .description("Hot cells fetched from OpenMeteo ahead of their cache expiration")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
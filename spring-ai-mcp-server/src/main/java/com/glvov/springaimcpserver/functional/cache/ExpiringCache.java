@@ -0,0 +1,112 @@
+package com.glvov.springaimcpserver.functional.cache;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded in-memory cache where every entry carries its own expiration instant.
+ * <br>
+ * Eviction is LRU by access order once {@code maxSize} is exceeded. Expired entries are dropped lazily on read.
+ * All operations are guarded by the cache monitor, which is cheap enough for the short critical sections used here.
+ */
+public class ExpiringCache<K, V> {
+
+    private final int maxSize;
+    private final Clock clock;
+    private final Map<K, Entry<V>> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+
+    public ExpiringCache(int maxSize, Clock clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive, but was " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                boolean evict = size() > ExpiringCache.this.maxSize;
+                if (evict) {
+                    evictions.increment();
+                }
+                return evict;
+            }
+        };
+    }
+
+    /**
+     * @return cached value or {@code null} when the key is absent or its entry has expired
+     */
+    public V get(K key) {
+        Instant now = clock.instant();
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt().isAfter(now)) {
+                hits.increment();
+                return entry.value();
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Same as {@link #get}, but not counted as a hit or miss, e.g. to re-check a key whose miss was already counted.
+     */
+    public V peek(K key) {
+        Instant now = clock.instant();
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            return entry != null && entry.expiresAt().isAfter(now) ? entry.value() : null;
+        }
+    }
+
+    public void put(K key, V value, Instant expiresAt) {
+        synchronized (this) {
+            entries.put(key, new Entry<>(value, expiresAt));
+        }
+    }
+
+    /**
+     * @return expiration of the key's entry, possibly already passed, or {@code null} when the key is absent;
+     * not counted as a hit or miss
+     */
+    public synchronized Instant expiration(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry != null ? entry.expiresAt() : null;
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+
+    private record Entry<V>(V value, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.glvov.springaimcpserver.functional.cache;
+
+/**
+ * Coordinates snapped to a square grid, so that nearby points (e.g. 40.6317 and 40.63) share one cache key.
+ *
+ * @param latIndex    latitude cell index, {@code round(latitude / gridDegrees)}
+ * @param lonIndex    longitude cell index, {@code round(longitude / gridDegrees)}
+ * @param gridDegrees cell size in degrees
+ */
+public record GeoCell(long latIndex, long lonIndex, double gridDegrees) {
+
+    public static GeoCell of(double latitude, double longitude, double gridDegrees) {
+        return new GeoCell(Math.round(latitude / gridDegrees), Math.round(longitude / gridDegrees), gridDegrees);
+    }
+
+    /**
+     * @return latitude of the cell center
+     */
+    public double latitude() {
+        return latIndex / (1 / gridDegrees);
+    }
+
+    /**
+     * @return longitude of the cell center
+     */
+    public double longitude() {
+        return lonIndex / (1 / gridDegrees);
+    }
+}
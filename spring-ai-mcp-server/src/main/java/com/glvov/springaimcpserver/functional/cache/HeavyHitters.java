@@ -0,0 +1,158 @@
+package com.glvov.springaimcpserver.functional.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving sketch of the most frequent keys of a stream, using at most {@code capacity} counters.
+ * <br>
+ * A key that is not tracked while all counters are taken replaces the key with the smallest count
+ * and inherits that count as its possible overestimation ({@code error}), so any key occurring more than
+ * {@code total / capacity} times is guaranteed to be tracked. {@link #decay()} halves all counts,
+ * so the sketch follows the recent stream rather than the whole history.
+ * <br>
+ * The counters are kept in a min-heap by count, so {@link #offer} costs {@code O(log capacity)}
+ * whether it increments a tracked key or replaces the smallest one, and the sketch monitor guarding
+ * all operations is held only that long on the request threads.
+ */
+public class HeavyHitters<K> {
+
+    private final int capacity;
+    private final Map<K, Counter<K>> counters;
+    private final List<Counter<K>> heap; // the smallest count first, every counter knows its index
+
+
+    public HeavyHitters(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive, but was " + capacity);
+        }
+        this.capacity = capacity;
+        this.counters = HashMap.newHashMap(capacity + 1);
+        this.heap = new ArrayList<>(capacity);
+    }
+
+    public synchronized void offer(K key) {
+        Counter<K> counter = counters.get(key);
+        if (counter != null) {
+            counter.count++;
+            siftDown(counter.index);
+            return;
+        }
+        if (heap.size() < capacity) {
+            counter = new Counter<>(key, 1, 0, heap.size());
+            heap.add(counter);
+            counters.put(key, counter);
+            siftUp(counter.index);
+            return;
+        }
+
+        // the counter of the smallest count is taken over by the new key
+        Counter<K> min = heap.getFirst();
+        counters.remove(min.key);
+        min.key = key;
+        min.error = min.count;
+        min.count++;
+        counters.put(key, min);
+        siftDown(min.index);
+    }
+
+    /**
+     * @param minCount min guaranteed number of occurrences, i.e. the count less its possible overestimation
+     * @return at most {@code limit} keys occurring at least {@code minCount} times, the most frequent first
+     */
+    public synchronized List<K> top(int limit, long minCount) {
+        return heap.stream()
+                .filter(counter -> counter.count - counter.error >= minCount)
+                .sorted(Comparator.comparingLong((Counter<K> counter) -> counter.count).reversed())
+                .limit(limit)
+                .map(counter -> counter.key)
+                .toList();
+    }
+
+    /**
+     * Halves all counts, keys whose count drops to zero are forgotten.
+     */
+    public synchronized void decay() {
+        // halving keeps the order of the counts, so the heap stays valid and the zeros come first
+        for (Counter<K> counter : heap) {
+            counter.count /= 2;
+            counter.error /= 2;
+        }
+        while (!heap.isEmpty() && heap.getFirst().count == 0) {
+            removeFirst();
+        }
+    }
+
+    public synchronized int size() {
+        return heap.size();
+    }
+
+    private void removeFirst() {
+        Counter<K> first = heap.getFirst();
+        Counter<K> last = heap.removeLast();
+        counters.remove(first.key);
+        if (last != first) {
+            place(last, 0);
+            siftDown(0);
+        }
+    }
+
+    private void siftUp(int index) {
+        Counter<K> counter = heap.get(index);
+        while (index > 0) {
+            int parentIndex = (index - 1) / 2;
+            Counter<K> parent = heap.get(parentIndex);
+            if (parent.count <= counter.count) {
+                break;
+            }
+            place(parent, index);
+            index = parentIndex;
+        }
+        place(counter, index);
+    }
+
+    private void siftDown(int index) {
+        Counter<K> counter = heap.get(index);
+        int size = heap.size();
+        while (true) {
+            int childIndex = 2 * index + 1;
+            if (childIndex >= size) {
+                break;
+            }
+            if (childIndex + 1 < size && heap.get(childIndex + 1).count < heap.get(childIndex).count) {
+                childIndex++;
+            }
+            Counter<K> child = heap.get(childIndex);
+            if (counter.count <= child.count) {
+                break;
+            }
+            place(child, index);
+            index = childIndex;
+        }
+        place(counter, index);
+    }
+
+    private void place(Counter<K> counter, int index) {
+        heap.set(index, counter);
+        counter.index = index;
+    }
+
+
+    private static final class Counter<K> {
+
+        private K key;
+        private long count;
+        private long error;
+        private int index;
+
+        Counter(K key, long count, long error, int index) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+            this.index = index;
+        }
+    }
+}
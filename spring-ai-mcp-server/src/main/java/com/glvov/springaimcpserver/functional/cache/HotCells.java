@@ -0,0 +1,62 @@
+package com.glvov.springaimcpserver.functional.cache;
+
+import com.glvov.springaimcpserver.config.RefreshAheadProperties;
+import com.glvov.springaimcpserver.config.WeatherCacheProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * The most frequently looked up {@link GeoCell}s of the recent traffic, tracked with {@link HeavyHitters}
+ * in {@code tracked-cells} counters regardless of how many distinct locations are requested.
+ * <br>
+ * Lookup counts are halved every {@code decay-interval}.
+ * Tracks nothing unless both {@code weather.refresh-ahead.enabled} and {@code weather.cache.enabled} are set.
+ */
+@Component
+public class HotCells {
+
+    private final RefreshAheadProperties properties;
+    private final boolean enabled;
+    private final HeavyHitters<GeoCell> lookups;
+
+
+    public HotCells(RefreshAheadProperties properties,
+                    WeatherCacheProperties cacheProperties,
+                    MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.enabled = properties.enabled() && cacheProperties.enabled();
+        this.lookups = new HeavyHitters<>(properties.trackedCells());
+
+        Gauge.builder("weather.hot.cells.tracked", lookups, HeavyHitters::size)
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void record(GeoCell cell) {
+        if (enabled) {
+            lookups.offer(cell);
+        }
+    }
+
+    /**
+     * @return at most {@code hot-cells} cells looked up at least {@code min-lookups} times, the most frequent first
+     */
+    public List<GeoCell> top() {
+        return enabled ? lookups.top(properties.hotCells(), properties.minLookups()) : List.of();
+    }
+
+    @Scheduled(fixedRateString = "${weather.refresh-ahead.decay-interval:10m}",
+            initialDelayString = "${weather.refresh-ahead.decay-interval:10m}")
+    public void decay() {
+        if (enabled) {
+            lookups.decay();
+        }
+    }
+}
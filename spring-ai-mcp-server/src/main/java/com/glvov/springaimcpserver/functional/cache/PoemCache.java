@@ -0,0 +1,79 @@
+package com.glvov.springaimcpserver.functional.cache;
+
+import com.glvov.springaimcpserver.config.PoemCacheProperties;
+import com.glvov.springaimcpserver.model.WeatherInfo;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.List;
+
+/**
+ * Cache of poems sampled from the client LLM, keyed on the normalized sampling prompt.
+ * <br>
+ * Temperatures are rounded to {@code temperature-step} and coordinates are snapped to a {@link GeoCell},
+ * so forecasts the poem wouldn't noticeably differ for share one entry.
+ */
+@Component
+public class PoemCache {
+
+    private final PoemCacheProperties properties;
+    private final Clock clock;
+    private final ExpiringCache<Key, String> cache;
+
+
+    public PoemCache(PoemCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.clock = Clock.systemUTC();
+        this.cache = new ExpiringCache<>(properties.maxSize(), clock);
+
+        FunctionCounter.builder("poem.cache.requests", cache, ExpiringCache::hitCount)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("poem.cache.requests", cache, ExpiringCache::missCount)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("poem.cache.evictions", cache, ExpiringCache::evictionCount)
+                .register(meterRegistry);
+        Gauge.builder("poem.cache.size", cache, ExpiringCache::size)
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    public Key keyOf(String systemPrompt, List<WeatherInfo> weather) {
+        List<Forecast> forecasts = weather.stream()
+                .map(info -> new Forecast(
+                        Math.round(info.temperature() / properties.temperatureStep()),
+                        GeoCell.of(info.latitude(), info.longitude(), properties.gridDegrees())))
+                .toList();
+        return new Key(systemPrompt, forecasts);
+    }
+
+    /**
+     * @return cached poem or {@code null} when the key is not cached, expired or the cache is disabled
+     */
+    public String get(Key key) {
+        return properties.enabled() ? cache.get(key) : null;
+    }
+
+    public void put(Key key, String poem) {
+        if (properties.enabled()) {
+            cache.put(key, poem, clock.instant().plus(properties.ttl()));
+        }
+    }
+
+
+    public record Key(String systemPrompt, List<Forecast> forecasts) {
+    }
+
+    /**
+     * @param temperatureIndex temperature divided by {@code temperature-step}, rounded
+     */
+    public record Forecast(long temperatureIndex, GeoCell cell) {
+    }
+}
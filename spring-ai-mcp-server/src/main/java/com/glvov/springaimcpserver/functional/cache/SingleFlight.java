@@ -0,0 +1,118 @@
+package com.glvov.springaimcpserver.functional.cache;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates concurrent loads of the same key.
+ * <br>
+ * The first caller for a key (the leader) runs the loader on its own thread, every other caller arriving
+ * while the load is in flight waits for the leader's result instead of running the loader again.
+ * The in-flight entry is removed before the result is published, so a failed load is never reused
+ * by subsequent callers - they start a new load.
+ * <br>
+ * {@link #execute} is for blocking callers, {@link #executeAsync} for non-blocking ones.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+
+    /**
+     * @param timeout max time a waiting caller blocks on the leader's load;
+     *                the leader itself is bounded only by the loader
+     * @throws IllegalStateException if the caller timed out waiting for the leader
+     */
+    public V execute(K key, Supplier<V> loader, Duration timeout) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, own);
+
+        if (leader != null) {
+            coalesced.increment();
+            return await(key, leader, timeout);
+        }
+
+        try {
+            V value = loader.get();
+            inFlight.remove(key, own);
+            own.complete(value);
+            return value;
+        } catch (Throwable e) {
+            inFlight.remove(key, own);
+            own.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #execute}: the leader's loader only starts the load and returns its future.
+     * Blocking and non-blocking callers of the same key share one in-flight load.
+     *
+     * @param timeout max time a waiting caller's future waits for the leader's load,
+     *                it completes with a {@link TimeoutException} afterwards
+     */
+    public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> loader, Duration timeout) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, own);
+
+        if (leader != null) {
+            coalesced.increment();
+            return leader.copy().orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        CompletableFuture<V> load;
+        try {
+            load = loader.get();
+        } catch (Throwable e) {
+            inFlight.remove(key, own);
+            own.completeExceptionally(e);
+            return own.copy();
+        }
+
+        load.whenComplete((value, error) -> {
+            inFlight.remove(key, own);
+            if (error != null) {
+                own.completeExceptionally(error);
+            } else {
+                own.complete(value);
+            }
+        });
+        return own.copy();
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * @return number of calls which were served by another caller's in-flight load
+     */
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    private V await(K key, CompletableFuture<V> leader, Duration timeout) {
+        try {
+            return leader.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new CompletionException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out after %s waiting for in-flight load of %s".formatted(timeout, key), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for in-flight load of " + key, e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.glvov.springaimcpserver.functional.cache;
+
+import com.glvov.springaimcpserver.config.WeatherCacheProperties;
+import com.glvov.springaimcpserver.model.OpenMeteoResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+/**
+ * Cache of current OpenMeteo observations keyed by {@link GeoCell}.
+ * <br>
+ * An observation stays valid until OpenMeteo publishes the next one, i.e. for
+ * {@link OpenMeteoResponse.Current#interval()} seconds after {@link OpenMeteoResponse.Current#time()},
+ * clamped to the configured {@code min-ttl}/{@code max-ttl} range.
+ */
+@Component
+public class WeatherCache {
+
+    private final WeatherCacheProperties properties;
+    private final Clock clock;
+    private final ExpiringCache<GeoCell, OpenMeteoResponse.Current> cache;
+
+
+    public WeatherCache(WeatherCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.clock = Clock.systemUTC();
+        this.cache = new ExpiringCache<>(properties.maxSize(), clock);
+
+        FunctionCounter.builder("weather.cache.requests", cache, ExpiringCache::hitCount)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("weather.cache.requests", cache, ExpiringCache::missCount)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("weather.cache.evictions", cache, ExpiringCache::evictionCount)
+                .register(meterRegistry);
+        Gauge.builder("weather.cache.size", cache, ExpiringCache::size)
+                .register(meterRegistry);
+    }
+
+    public GeoCell cellOf(double latitude, double longitude) {
+        return GeoCell.of(latitude, longitude, properties.gridDegrees());
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    /**
+     * @return cached observation or {@code null} when the cell is not cached, expired or the cache is disabled
+     */
+    public OpenMeteoResponse.Current get(GeoCell cell) {
+        return properties.enabled() ? cache.get(cell) : null;
+    }
+
+    /**
+     * Same as {@link #get}, but not counted as a cache request.
+     */
+    public OpenMeteoResponse.Current peek(GeoCell cell) {
+        return properties.enabled() ? cache.peek(cell) : null;
+    }
+
+    /**
+     * @return expiration of the cell's observation, or {@code null} when the cell is not cached or the cache is disabled
+     */
+    public Instant expiration(GeoCell cell) {
+        return properties.enabled() ? cache.expiration(cell) : null;
+    }
+
+    public void put(GeoCell cell, OpenMeteoResponse.Current current) {
+        put(cell, current, expiresAt(current));
+    }
+
+    /**
+     * Puts an observation whose expiration is already known, e.g. one restored from {@link WeatherSnapshotStore}.
+     */
+    public void put(GeoCell cell, OpenMeteoResponse.Current current, Instant expiresAt) {
+        if (properties.enabled()) {
+            cache.put(cell, current, expiresAt);
+        }
+    }
+
+    /**
+     * @return instant the observation stops being valid, see the class description
+     */
+    public Instant expiresAt(OpenMeteoResponse.Current current) {
+        Instant now = clock.instant();
+        Instant min = now.plus(properties.minTtl());
+        Instant max = now.plus(properties.maxTtl());
+
+        if (current.time() == null || current.interval() <= 0) {
+            return min;
+        }
+
+        // OpenMeteo reports time in GMT unless the "timezone" query param is set
+        Instant nextObservation = current.time().toInstant(ZoneOffset.UTC).plusSeconds(current.interval());
+
+        if (nextObservation.isBefore(min)) {
+            return min;
+        }
+        return nextObservation.isAfter(max) ? max : nextObservation;
+    }
+}
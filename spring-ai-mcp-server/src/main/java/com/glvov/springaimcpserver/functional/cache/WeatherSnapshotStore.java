@@ -0,0 +1,349 @@
+package com.glvov.springaimcpserver.functional.cache;
+
+import com.glvov.springaimcpserver.config.WeatherCacheProperties;
+import com.glvov.springaimcpserver.config.WeatherSnapshotProperties;
+import com.glvov.springaimcpserver.model.OpenMeteoResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Memory-mapped file of recent OpenMeteo observations keyed by {@link GeoCell}, so that a restarted instance
+ * starts with a warm {@link WeatherCache} instead of sending the first wave of lookups to OpenMeteo.
+ * <br>
+ * The file is a fixed-size open-addressing hash table of {@code max-entries} fixed-size records of primitives,
+ * so its size never grows. A cell is looked up in a short probe window starting at its hash, when the window is full
+ * the observation expiring first is overwritten. Reads take the fields straight from the mapped file.
+ * Expired records are dropped, and the file is flushed to disk, every {@code compaction-interval}.
+ * <br>
+ * Disabled unless both {@code weather.snapshot.enabled} and {@code weather.cache.enabled} are set,
+ * then no file is created and every lookup is a miss.
+ */
+@Component
+@Slf4j
+public class WeatherSnapshotStore implements AutoCloseable {
+
+    private static final int MAGIC = 0x574D5331; // "WMS1"
+    private static final int HEADER_SIZE = 32;
+    private static final int MAX_PROBES = 8;
+
+    // record layout, an empty slot has expiresAt == 0
+    private static final int LAT_INDEX = 0;
+    private static final int LON_INDEX = 8;
+    private static final int EXPIRES_AT = 16;
+    private static final int OBSERVED_AT = 24;
+    private static final int TEMPERATURE = 32;
+    private static final int INTERVAL = 40;
+    private static final int RECORD_SIZE = 48;
+
+    private static final long NO_OBSERVATION_TIME = Long.MIN_VALUE;
+
+    private final boolean enabled;
+    private final int slots;
+    private final double gridDegrees;
+    private final Clock clock = Clock.systemUTC();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final MappedByteBuffer buffer;
+    private volatile int size;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+
+    public WeatherSnapshotStore(WeatherSnapshotProperties properties,
+                                WeatherCacheProperties cacheProperties,
+                                MeterRegistry meterRegistry) {
+        this.enabled = properties.enabled() && cacheProperties.enabled();
+        this.slots = properties.maxEntries();
+        this.gridDegrees = cacheProperties.gridDegrees();
+        this.buffer = enabled ? map(properties.file()) : null;
+        this.size = enabled ? countRecords() : 0;
+
+        FunctionCounter.builder("weather.snapshot.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("weather.snapshot.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("weather.snapshot.size", this, WeatherSnapshotStore::size)
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return stored observation or {@code null} when the cell is not stored, expired or the store is disabled
+     */
+    public Snapshot get(GeoCell cell) {
+        if (!enabled) {
+            return null;
+        }
+        Snapshot snapshot = peek(cell);
+        if (snapshot != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Same as {@link #get}, but not counted as a snapshot request.
+     */
+    public Snapshot peek(GeoCell cell) {
+        if (!enabled) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            int slot = find(cell);
+            return slot >= 0 && expiresAt(slot) > clock.millis() ? read(slot) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(GeoCell cell, OpenMeteoResponse.Current current, Instant expiresAt) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            write(slotFor(cell), cell, current, expiresAt.toEpochMilli());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return every stored observation that hasn't expired yet, e.g. to warm up the cache on startup
+     */
+    public List<Snapshot> snapshots() {
+        if (!enabled) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            long now = clock.millis();
+            List<Snapshot> snapshots = new ArrayList<>();
+            for (int slot = 0; slot < slots; slot++) {
+                if (expiresAt(slot) > now) {
+                    snapshots.add(read(slot));
+                }
+            }
+            return snapshots;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Drops expired observations, re-inserts the live ones so their probe windows are as short as possible,
+     * and flushes the file to disk.
+     */
+    @Scheduled(fixedDelayString = "${weather.snapshot.compaction-interval:5m}",
+            initialDelayString = "${weather.snapshot.compaction-interval:5m}")
+    public void compact() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            List<Snapshot> live = snapshots();
+            for (int slot = 0; slot < slots; slot++) {
+                buffer.putLong(offset(slot) + EXPIRES_AT, 0);
+            }
+
+            size = 0;
+            for (Snapshot snapshot : live) {
+                write(slotFor(snapshot.cell()), snapshot.cell(), snapshot.current(), snapshot.expiresAt().toEpochMilli());
+            }
+            buffer.force();
+
+            log.debug("Weather snapshot compacted: {} live entries", size);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of stored records, the expired ones included until the next compaction
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void close() {
+        if (enabled) {
+            lock.writeLock().lock();
+            try {
+                buffer.force();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * @return slot of the cell or {@code -1} when the cell is not stored
+     */
+    private int find(GeoCell cell) {
+        int home = home(cell);
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int slot = (home + probe) % slots;
+            if (expiresAt(slot) == 0) {
+                // records are never removed between compactions, so the cell can't be further in the window
+                return -1;
+            }
+            if (holds(slot, cell)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return slot of the cell, otherwise the first empty slot of its window,
+     * otherwise the slot of the window expiring first
+     */
+    private int slotFor(GeoCell cell) {
+        int home = home(cell);
+        int victim = home;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int slot = (home + probe) % slots;
+            long expiresAt = expiresAt(slot);
+            if (expiresAt == 0 || holds(slot, cell)) {
+                return slot;
+            }
+            if (expiresAt < expiresAt(victim)) {
+                victim = slot;
+            }
+        }
+        return victim;
+    }
+
+    private int home(GeoCell cell) {
+        long hash = cell.latIndex() * 0x9E3779B97F4A7C15L ^ cell.lonIndex() * 0xC2B2AE3D27D4EB4FL;
+        return (int) Math.floorMod(hash ^ (hash >>> 32), (long) slots);
+    }
+
+    private boolean holds(int slot, GeoCell cell) {
+        int offset = offset(slot);
+        return buffer.getLong(offset + LAT_INDEX) == cell.latIndex()
+                && buffer.getLong(offset + LON_INDEX) == cell.lonIndex();
+    }
+
+    private long expiresAt(int slot) {
+        return buffer.getLong(offset(slot) + EXPIRES_AT);
+    }
+
+    private Snapshot read(int slot) {
+        int offset = offset(slot);
+        long observedAt = buffer.getLong(offset + OBSERVED_AT);
+        var current = new OpenMeteoResponse.Current(
+                observedAt == NO_OBSERVATION_TIME ? null : LocalDateTime.ofEpochSecond(observedAt, 0, ZoneOffset.UTC),
+                buffer.getInt(offset + INTERVAL),
+                buffer.getDouble(offset + TEMPERATURE));
+        var cell = new GeoCell(buffer.getLong(offset + LAT_INDEX), buffer.getLong(offset + LON_INDEX), gridDegrees);
+        return new Snapshot(cell, current, Instant.ofEpochMilli(buffer.getLong(offset + EXPIRES_AT)));
+    }
+
+    private void write(int slot, GeoCell cell, OpenMeteoResponse.Current current, long expiresAt) {
+        int offset = offset(slot);
+        if (buffer.getLong(offset + EXPIRES_AT) == 0) {
+            size++;
+        }
+        buffer.putLong(offset + LAT_INDEX, cell.latIndex());
+        buffer.putLong(offset + LON_INDEX, cell.lonIndex());
+        buffer.putLong(offset + OBSERVED_AT,
+                current.time() == null ? NO_OBSERVATION_TIME : current.time().toEpochSecond(ZoneOffset.UTC));
+        buffer.putDouble(offset + TEMPERATURE, current.temperature_2m());
+        buffer.putInt(offset + INTERVAL, current.interval());
+        // written last, so a new record torn by a crash is left an empty slot
+        buffer.putLong(offset + EXPIRES_AT, expiresAt);
+    }
+
+    private int countRecords() {
+        int records = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (expiresAt(slot) != 0) {
+                records++;
+            }
+        }
+        return records;
+    }
+
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    /**
+     * Maps the snapshot file, recreating it when it was written with a different layout, slot count or grid.
+     */
+    private MappedByteBuffer map(Path file) {
+        long fileSize = offset(slots);
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                boolean compatible = channel.size() == fileSize && hasHeader(channel);
+                if (!compatible) {
+                    log.info("Creating weather snapshot {} for {} entries", file, slots);
+                    channel.truncate(0);
+                }
+
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+                if (!compatible) {
+                    mapped.putInt(0, MAGIC);
+                    mapped.putInt(4, slots);
+                    mapped.putDouble(8, gridDegrees);
+                }
+                return mapped;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map weather snapshot " + file, e);
+        }
+    }
+
+    private boolean hasHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        return header.getInt(0) == MAGIC
+                && header.getInt(4) == slots
+                && header.getDouble(8) == gridDegrees;
+    }
+
+
+    /**
+     * @param expiresAt instant the observation stops being valid, as computed by {@link WeatherCache}
+     */
+    public record Snapshot(GeoCell cell, OpenMeteoResponse.Current current, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,4 @@
+package com.glvov.springaimcpserver.model;
+
+public record Location(double latitude, double longitude) {
+}
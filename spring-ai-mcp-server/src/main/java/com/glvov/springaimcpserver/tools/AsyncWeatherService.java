@@ -0,0 +1,118 @@
+package com.glvov.springaimcpserver.tools;
+
+import com.glvov.springaimcpserver.config.WeatherToolProperties;
+import com.glvov.springaimcpserver.functional.OpenMeteoGateway;
+import com.glvov.springaimcpserver.model.Location;
+import com.glvov.springaimcpserver.model.WeatherInfo;
+import com.glvov.springaimcpserver.tools.sampling.PoemSamplingService;
+import io.modelcontextprotocol.server.McpAsyncServerExchange;
+import io.modelcontextprotocol.spec.McpSchema.LoggingLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springaicommunity.mcp.annotation.McpMeta;
+import org.springaicommunity.mcp.annotation.McpProgressToken;
+import org.springaicommunity.mcp.annotation.McpTool;
+import org.springaicommunity.mcp.annotation.McpToolParam;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking counterpart of {@link WeatherService}, active with {@code spring.ai.mcp.server.type=ASYNC}.
+ * <br>
+ * The same tools with the same responses and the same per-tool limits, but no thread is held while a call waits
+ * for OpenMeteo or for the client's sampling response, so long-running calls cost only their pipeline state.
+ */
+@Service
+@ConditionalOnProperty(prefix = "spring.ai.mcp.server", name = "type", havingValue = "ASYNC")
+@Slf4j
+@RequiredArgsConstructor
+public class AsyncWeatherService {
+
+    private final OpenMeteoGateway openMeteoGateway;
+    private final PoemSamplingService poemSamplingService;
+    private final WeatherToolProperties properties;
+    private final ToolConcurrencyLimiter toolConcurrencyLimiter;
+    private final ToolObservations toolObservations;
+    private final ToolNotifier toolNotifier;
+
+
+    /**
+     * See {@link WeatherService#getTemperature}.
+     */
+    @McpTool(description = "Get the temperature (in celsius) for a specific location")
+    public Mono<String> getTemperature(McpAsyncServerExchange exchange,
+                                       @McpToolParam(description = "The location latitude")
+                                       double latitude,
+                                       @McpToolParam(description = "The location longitude")
+                                       double longitude,
+                                       @McpProgressToken
+                                       String progressToken,
+                                       McpMeta meta) {
+
+        log.info("getTemperature called with latitude={}, longitude={}, progressToken={}",
+                latitude, longitude, progressToken);
+
+        return ToolObservations.observe(toolObservations.toolCall("getTemperature", meta),
+                () -> toolConcurrencyLimiter.limit("getTemperature", () -> respond(
+                        exchange, progressToken,
+                        () -> "getTemperature called with latitude=%s, longitude=%s".formatted(latitude, longitude),
+                        "Start getting temperature from open meteo",
+                        openMeteoGateway.getWeatherAsync(latitude, longitude).map(List::of))));
+    }
+
+    /**
+     * See {@link WeatherService#getTemperatures}.
+     */
+    @McpTool(description = "Get the temperature (in celsius) for several locations at once")
+    public Mono<String> getTemperatures(McpAsyncServerExchange exchange,
+                                        @McpToolParam(description = "The locations with their latitude and longitude")
+                                        List<Location> locations,
+                                        @McpProgressToken
+                                        String progressToken,
+                                        McpMeta meta) {
+
+        log.info("getTemperatures called with {} locations, progressToken={}", locations.size(), progressToken);
+
+        return ToolObservations.observe(toolObservations.toolCall("getTemperatures", meta),
+                () -> toolConcurrencyLimiter.limit("getTemperatures", () -> respond(
+                        exchange, progressToken,
+                        () -> "getTemperatures called with locations=%s".formatted(locations),
+                        "Start getting temperatures from open meteo",
+                        openMeteoGateway.getWeatherAsync(locations))));
+    }
+
+    /**
+     * The OpenMeteo lookup is subscribed together with the initial notifications, then the weather details
+     * are optionally streamed, the poem is sampled and the final response is built.
+     */
+    private Mono<String> respond(McpAsyncServerExchange exchange,
+                                 String progressToken,
+                                 Supplier<String> callDescription,
+                                 String startMessage,
+                                 Mono<List<WeatherInfo>> weatherLookup) {
+
+        Mono<Void> started = toolNotifier.log(exchange, LoggingLevel.INFO, callDescription)
+                .then(toolNotifier.progress(exchange, progressToken, 0.0, startMessage));
+
+        return Mono.zip(weatherLookup, started.thenReturn(Boolean.TRUE), (weather, sent) -> weather)
+                .doOnNext(weather -> log.debug("Weather info: {}", weather))
+                .flatMap(weather -> streamWeatherProgress(exchange, progressToken, weather)
+                        .then(poemSamplingService.generatePoem(exchange, progressToken, weather).defaultIfEmpty(""))
+                        .flatMap(poem -> toolNotifier
+                                .progress(exchange, progressToken, 1.0, "Task completed")
+                                .thenReturn(WeatherResponseFormatter.formatFinalResponse(poem, weather))))
+                .doOnNext(finalResponse -> log.debug("Final response:\n{}", finalResponse));
+    }
+
+    private Mono<Void> streamWeatherProgress(McpAsyncServerExchange exchange, String progressToken, List<WeatherInfo> weather) {
+        if (!properties.streamWeatherProgress()) {
+            return Mono.empty();
+        }
+        return toolNotifier.progressDetails(exchange, progressToken, 0.25,
+                () -> WeatherResponseFormatter.formatWeatherDetails(weather));
+    }
+}
@@ -0,0 +1,110 @@
+package com.glvov.springaimcpserver.tools;
+
+import com.glvov.springaimcpserver.config.ToolConcurrencyProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bounds the number of concurrent calls per MCP tool.
+ * <br>
+ * With virtual threads every tool call gets its own thread, so the thread pool no longer limits
+ * how many slow calls (e.g. waiting on client sampling) an instance accepts. This limiter does.
+ * <pre><code>
+ * try (var permit = toolConcurrencyLimiter.acquire("getTemperature")) {
+ *     ...
+ * }
+ * </code></pre>
+ * The non-blocking tools of the async server share the same limits with {@link #limit}.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ToolConcurrencyLimiter {
+
+    private final ToolConcurrencyProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Limit> limits = new ConcurrentHashMap<>();
+
+
+    /**
+     * @throws IllegalStateException if no slot frees up within {@code tool-concurrency.acquire-timeout}
+     */
+    public Permit acquire(String toolName) {
+        Limit limit = limits.computeIfAbsent(toolName, this::newLimit);
+
+        boolean acquired;
+        try {
+            acquired = limit.semaphore().tryAcquire(properties.acquireTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+
+        if (!acquired) {
+            limit.rejected().increment();
+            log.warn("{} call rejected, {} calls are already in progress", toolName, limit.max());
+            throw new IllegalStateException("Too many concurrent %s calls, try again later".formatted(toolName));
+        }
+
+        return limit.semaphore()::release;
+    }
+
+    /**
+     * Non-blocking variant of {@link #acquire}: subscribes to the call once a slot is free and holds the slot
+     * until the call terminates or is cancelled.
+     * <br>
+     * A free slot is taken on the subscribing thread. Only when every slot is taken, the wait for one
+     * is moved to a bounded elastic thread, so that it doesn't block an event loop.
+     *
+     * @return the call, or an {@link IllegalStateException} if no slot frees up within
+     * {@code tool-concurrency.acquire-timeout}
+     */
+    public <T> Mono<T> limit(String toolName, Supplier<Mono<T>> call) {
+        Mono<Permit> permit = Mono.defer(() -> {
+            Limit limit = limits.computeIfAbsent(toolName, this::newLimit);
+            if (limit.semaphore().tryAcquire()) {
+                Permit acquired = limit.semaphore()::release;
+                return Mono.just(acquired);
+            }
+            return Mono.fromCallable(() -> acquire(toolName)).subscribeOn(Schedulers.boundedElastic());
+        });
+
+        return Mono.usingWhen(permit, p -> call.get(), p -> Mono.fromRunnable(p::close));
+    }
+
+    private Limit newLimit(String toolName) {
+        int max = properties.maxConcurrentCalls(toolName);
+        Semaphore semaphore = new Semaphore(max);
+
+        Gauge.builder("mcp.tool.calls.active", semaphore, s -> max - s.availablePermits())
+                .tag("tool", toolName)
+                .register(meterRegistry);
+        Counter rejected = Counter.builder("mcp.tool.calls.rejected")
+                .tag("tool", toolName)
+                .register(meterRegistry);
+
+        return new Limit(max, semaphore, rejected);
+    }
+
+
+    public interface Permit extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    private record Limit(int max, Semaphore semaphore, Counter rejected) {
+    }
+}
@@ -0,0 +1,215 @@
+package com.glvov.springaimcpserver.tools;
+
+import com.glvov.springaimcpserver.config.ToolNotificationProperties;
+import com.glvov.springaimcpserver.functional.cache.ExpiringCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.modelcontextprotocol.server.McpAsyncServerExchange;
+import io.modelcontextprotocol.server.McpSyncServerExchange;
+import io.modelcontextprotocol.spec.McpSchema.LoggingLevel;
+import io.modelcontextprotocol.spec.McpSchema.LoggingMessageNotification;
+import io.modelcontextprotocol.spec.McpSchema.ProgressNotification;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sends the MCP logging and progress notifications of the tools within the {@code weather.notifications} budget.
+ * <br>
+ * Messages are passed as suppliers and built only once the notification is known to be sent:
+ * <ul>
+ *     <li>logging notifications below {@code min-level} are dropped before anything is formatted,
+ *     and at most {@code max-logging-per-second} are sent per session</li>
+ *     <li>an intermediate progress notification repeating the last progress value of its progress stream
+ *     (the session and progress token, i.e. one tool call) is sent at most once per {@code progress-interval};
+ *     new progress values, the completion and the weather details ({@link #progressDetails}) are always sent</li>
+ * </ul>
+ * Dropped notifications are counted in {@code mcp.notifications.dropped}.
+ */
+@Component
+public class ToolNotifier {
+
+    private static final int MAX_SESSIONS = 10_000;
+    private static final int MAX_PROGRESS_STREAMS = 10_000;
+    private static final Duration SESSION_IDLE_TIMEOUT = Duration.ofHours(1);
+
+    private final ToolNotificationProperties properties;
+    private final Clock clock = Clock.systemUTC();
+    private final ExpiringCache<String, SessionBudget> sessions = new ExpiringCache<>(MAX_SESSIONS, clock);
+    private final ExpiringCache<ProgressStreamKey, ProgressStream> progressStreams =
+            new ExpiringCache<>(MAX_PROGRESS_STREAMS, clock);
+    private final Counter droppedByLevel;
+    private final Counter droppedLogging;
+    private final Counter droppedProgress;
+
+
+    public ToolNotifier(ToolNotificationProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.droppedByLevel = dropped(meterRegistry, "logging", "level");
+        this.droppedLogging = dropped(meterRegistry, "logging", "rate");
+        this.droppedProgress = dropped(meterRegistry, "progress", "rate");
+    }
+
+    public void log(McpSyncServerExchange exchange, LoggingLevel level, Supplier<String> data) {
+        if (shouldLog(exchange.sessionId(), level)) {
+            exchange.loggingNotification(loggingNotification(level, data));
+        }
+    }
+
+    public Mono<Void> log(McpAsyncServerExchange exchange, LoggingLevel level, Supplier<String> data) {
+        return Mono.defer(() -> shouldLog(exchange.sessionId(), level)
+                ? exchange.loggingNotification(loggingNotification(level, data))
+                : Mono.empty());
+    }
+
+    /**
+     * Status update, dropped when it repeats the progress value sent for the same session and progress token
+     * within {@code progress-interval}.
+     */
+    public void progress(McpSyncServerExchange exchange, String progressToken, double progress, String message) {
+        if (shouldSendProgress(exchange.sessionId(), progressToken, progress)) {
+            exchange.progressNotification(new ProgressNotification(progressToken, progress, 1.0, message));
+        }
+    }
+
+    public Mono<Void> progress(McpAsyncServerExchange exchange, String progressToken, double progress, String message) {
+        return Mono.defer(() -> shouldSendProgress(exchange.sessionId(), progressToken, progress)
+                ? exchange.progressNotification(new ProgressNotification(progressToken, progress, 1.0, message))
+                : Mono.empty());
+    }
+
+    /**
+     * Progress notification carrying content the client waits for, never dropped.
+     */
+    public void progressDetails(McpSyncServerExchange exchange,
+                                String progressToken,
+                                double progress,
+                                Supplier<String> details) {
+        exchange.progressNotification(new ProgressNotification(progressToken, progress, 1.0, details.get()));
+    }
+
+    public Mono<Void> progressDetails(McpAsyncServerExchange exchange,
+                                      String progressToken,
+                                      double progress,
+                                      Supplier<String> details) {
+        return Mono.defer(() -> exchange.progressNotification(
+                new ProgressNotification(progressToken, progress, 1.0, details.get())));
+    }
+
+    private boolean shouldLog(String sessionId, LoggingLevel level) {
+        if (level.level() < properties.minLevel().level()) {
+            droppedByLevel.increment();
+            return false;
+        }
+        if (!budgetOf(sessionId).tryLog(properties.maxLoggingPerSecond())) {
+            droppedLogging.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private boolean shouldSendProgress(String sessionId, String progressToken, double progress) {
+        var key = new ProgressStreamKey(sessionId != null ? sessionId : "", progressToken);
+        if (progress >= 1.0) {
+            progressStreams.invalidate(key); // the stream is complete
+            return true;
+        }
+        if (!progressStreamOf(key).tryProgress(progress, properties.progressInterval().toNanos())) {
+            droppedProgress.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private ProgressStream progressStreamOf(ProgressStreamKey key) {
+        ProgressStream stream = progressStreams.get(key);
+        if (stream == null) {
+            // two first notifications of a stream racing here may both create it, which only lets a repeat through
+            stream = new ProgressStream();
+        }
+        // renewed on every notification, a stream never completed expires once idle for the timeout
+        progressStreams.put(key, stream, clock.instant().plus(SESSION_IDLE_TIMEOUT));
+        return stream;
+    }
+
+    private SessionBudget budgetOf(String sessionId) {
+        String key = sessionId != null ? sessionId : "";
+        SessionBudget budget = sessions.get(key);
+        if (budget == null) {
+            // two first notifications of a session racing here may both create a budget, which only loosens the limit once
+            budget = new SessionBudget();
+        }
+        // renewed on every notification, so only the budget of a session idle for the timeout expires
+        sessions.put(key, budget, clock.instant().plus(SESSION_IDLE_TIMEOUT));
+        return budget;
+    }
+
+    private static LoggingMessageNotification loggingNotification(LoggingLevel level, Supplier<String> data) {
+        return LoggingMessageNotification.builder()
+                .level(level)
+                .data(data.get())
+                .meta(Map.of()) // non-null meta as a workaround for bug
+                .build();
+    }
+
+    private static Counter dropped(MeterRegistry meterRegistry, String type, String reason) {
+        return Counter.builder("mcp.notifications.dropped")
+                .description("MCP notifications not sent to stay within the notification budget")
+                .tag("type", type)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+
+    /**
+     * Logging notification budget of one session: a one-second window of logging notifications.
+     */
+    private static class SessionBudget {
+
+        private static final long SECOND_NANOS = Duration.ofSeconds(1).toNanos();
+
+        private long loggingWindowStart = System.nanoTime();
+        private int loggingInWindow;
+
+        synchronized boolean tryLog(int maxPerSecond) {
+            long now = System.nanoTime();
+            if (now - loggingWindowStart >= SECOND_NANOS) {
+                loggingWindowStart = now;
+                loggingInWindow = 0;
+            }
+            if (loggingInWindow >= maxPerSecond) {
+                return false;
+            }
+            loggingInWindow++;
+            return true;
+        }
+    }
+
+
+    private record ProgressStreamKey(String sessionId, String progressToken) {
+    }
+
+
+    /**
+     * Value and time of the last intermediate progress notification of one progress stream.
+     */
+    private static class ProgressStream {
+
+        private double lastProgress = Double.NaN;
+        private long lastProgressNanos;
+
+        synchronized boolean tryProgress(double progress, long intervalNanos) {
+            long now = System.nanoTime();
+            if (progress == lastProgress && now - lastProgressNanos < intervalNanos) {
+                return false;
+            }
+            lastProgress = progress;
+            lastProgressNanos = now;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.glvov.springaimcpserver.tools;
+
+import io.micrometer.common.lang.Nullable;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import io.micrometer.observation.transport.Kind;
+import io.micrometer.observation.transport.ReceiverContext;
+import lombok.RequiredArgsConstructor;
+import org.springaicommunity.mcp.annotation.McpMeta;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Observations of the MCP tool calls: the {@code mcp.tool.call} timer tagged by tool and the server span of the call.
+ * <br>
+ * The span continues the client's trace, whose context the client sends in the request {@code _meta}
+ * (W3C {@code traceparent}), so one trace covers the client's LLM round, the tool call with its OpenMeteo request,
+ * and the sampling request the tool sends back to the client.
+ * The span also follows the sampling decision of the client's trace (the {@code traceparent} flags),
+ * {@code management.tracing.sampling.probability} only samples the calls that come without a trace context.
+ * <pre><code>
+ * return toolObservations.toolCall("getTemperature", meta).observe(() -> { ... });
+ * </code></pre>
+ */
+@Component
+@RequiredArgsConstructor
+public class ToolObservations {
+
+    private static final String TOOL_CALL = "mcp.tool.call";
+
+    private final ObservationRegistry observationRegistry;
+
+
+    /**
+     * @param meta the request {@code _meta}, carrying the client's trace context
+     * @return the not yet started observation of the call
+     */
+    public Observation toolCall(String tool, @Nullable McpMeta meta) {
+        var context = new ReceiverContext<McpMeta>(
+                (carrier, key) -> carrier.meta() != null && carrier.get(key) instanceof String value ? value : null,
+                Kind.SERVER);
+        context.setCarrier(meta != null ? meta : new McpMeta(Map.of()));
+
+        return Observation.createNotStarted(TOOL_CALL, () -> context, observationRegistry)
+                .contextualName("mcp tool " + tool)
+                .lowCardinalityKeyValue("tool", tool);
+    }
+
+    /**
+     * Reactive counterpart of {@link Observation#observe(Supplier)}: the observation is started on subscription,
+     * is the parent of the observations within the pipeline (e.g. {@code WebClient} requests)
+     * and is stopped when the pipeline terminates.
+     * <br>
+     * An observation without a parent continues the one in the subscriber's context, if any.
+     */
+    public static <T> Mono<T> observe(Observation observation, Supplier<Mono<T>> pipeline) {
+        return Mono.deferContextual(subscriberContext -> {
+            Observation parent = subscriberContext.getOrDefault(ObservationThreadLocalAccessor.KEY, null);
+            if (parent != null && observation.getContext().getParentObservation() == null) {
+                observation.parentObservation(parent);
+            }
+            observation.start();
+
+            Mono<T> observed;
+            try {
+                observed = pipeline.get();
+            } catch (RuntimeException e) {
+                observation.error(e);
+                observation.stop();
+                return Mono.error(e);
+            }
+
+            return observed
+                    .doOnError(observation::error)
+                    .doFinally(signal -> observation.stop())
+                    .contextWrite(context -> context.put(ObservationThreadLocalAccessor.KEY, observation));
+        });
+    }
+}
@@ -0,0 +1,47 @@
+package com.glvov.springaimcpserver.tools;
+
+import com.glvov.springaimcpserver.model.WeatherInfo;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Text responses of the weather tools, shared by the sync and async tool implementations.
+ */
+final class WeatherResponseFormatter {
+
+    private WeatherResponseFormatter() {
+    }
+
+
+    static String formatFinalResponse(String poem, List<WeatherInfo> weather) {
+        return finalResponse(poem, formatWeatherDetails(weather));
+    }
+
+    static String formatFinalResponse(String poem, WeatherInfo weather) {
+        return finalResponse(poem, formatWeatherDetails(weather));
+    }
+
+    static String formatWeatherDetails(List<WeatherInfo> weather) {
+        return weather.stream()
+                .map(WeatherResponseFormatter::formatWeatherDetails)
+                .collect(Collectors.joining("\n"));
+    }
+
+    static String formatWeatherDetails(WeatherInfo weather) {
+        return "Weather details: %.2f°C at (%.4f, %.4f)"
+                .formatted(weather.temperature(), weather.latitude(), weather.longitude());
+    }
+
+    private static String finalResponse(String poem, String weatherDetails) {
+        String poemContext = StringUtils.hasText(poem)
+                ? "Weather Poem:\n%s".formatted(poem)
+                : "";
+
+        return """
+                %s
+                %s
+                """.formatted(poemContext, weatherDetails);
+    }
+}
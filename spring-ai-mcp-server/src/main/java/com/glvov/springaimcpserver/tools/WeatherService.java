@@ -1,29 +1,39 @@
 package com.glvov.springaimcpserver.tools;
 
+import com.glvov.springaimcpserver.config.WeatherToolProperties;
 import com.glvov.springaimcpserver.functional.OpenMeteoGateway;
+import com.glvov.springaimcpserver.model.Location;
 import com.glvov.springaimcpserver.model.WeatherInfo;
 import com.glvov.springaimcpserver.tools.sampling.PoemSamplingService;
 import io.modelcontextprotocol.server.McpSyncServerExchange;
 import io.modelcontextprotocol.spec.McpSchema.LoggingLevel;
-import io.modelcontextprotocol.spec.McpSchema.LoggingMessageNotification;
-import io.modelcontextprotocol.spec.McpSchema.ProgressNotification;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springaicommunity.mcp.annotation.McpMeta;
 import org.springaicommunity.mcp.annotation.McpProgressToken;
 import org.springaicommunity.mcp.annotation.McpTool;
 import org.springaicommunity.mcp.annotation.McpToolParam;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
 
-import java.util.Map;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 
 @Service
+@ConditionalOnProperty(prefix = "spring.ai.mcp.server", name = "type", havingValue = "SYNC", matchIfMissing = true)
 @Slf4j
 @RequiredArgsConstructor
 public class WeatherService {
 
     private final OpenMeteoGateway openMeteoGateway;
     private final PoemSamplingService poemSamplingService;
+    private final WeatherToolProperties properties;
+    private final ExecutorService toolExecutor;
+    private final ToolConcurrencyLimiter toolConcurrencyLimiter;
+    private final ToolObservations toolObservations;
+    private final ToolNotifier toolNotifier;
 
 
     /**
@@ -31,11 +41,16 @@ public class WeatherService {
      * <br>
      * Additionally, it generates a contextualized poem related to the weather conditions and
      * communicates progress updates back to the client using MCP notifications.
+     * <br>
+     * The OpenMeteo request runs concurrently with the initial notifications. With
+     * {@code weather.tool.stream-weather-progress} enabled the weather details are sent as a progress notification
+     * as soon as they arrive, so the client gets the data before the (slow) poem sampling completes.
 
      * @param exchange      provides access to server-client communication capabilities.
      *                      It allows the server to send notifications and make requests back to the client
      * @param progressToken enables progress tracking. The client provides this token,
      *                      and the server uses it to send progress updates.
+     * @param meta          request metadata, carries the client's trace context
      */
     @McpTool(description = "Get the temperature (in celsius) for a specific location")
     public String getTemperature(McpSyncServerExchange exchange, // (1)
@@ -44,48 +59,106 @@ public class WeatherService {
                                  @McpToolParam(description = "The location longitude")
                                  double longitude,
                                  @McpProgressToken
-                                 String progressToken) { // (2)
+                                 String progressToken, // (2)
+                                 McpMeta meta) {
+
+        return toolObservations.toolCall("getTemperature", meta).observe(() -> {
+            try (var permit = toolConcurrencyLimiter.acquire("getTemperature")) {
+                log.info("getTemperature called with latitude={}, longitude={}, progressToken={}",
+                        latitude, longitude, progressToken);
+
+                // OpenMeteo request runs on a virtual thread, overlapping with the notifications below
+                CompletableFuture<WeatherInfo> weatherFuture =
+                        CompletableFuture.supplyAsync(() -> openMeteoGateway.getWeather(latitude, longitude), toolExecutor);
 
-        log.info("getTemperature called with latitude={}, longitude={}, progressToken={}",
-                latitude, longitude, progressToken);
+                toolNotifier.log(exchange, LoggingLevel.INFO,
+                        () -> "getTemperature called with latitude=%s, longitude=%s".formatted(latitude, longitude));
 
-        exchange.loggingNotification(
-                LoggingMessageNotification.builder()
-                        .level(LoggingLevel.INFO)
-                        .data("getTemperature called with latitude=%s, longitude=%s".formatted(latitude, longitude))
-                        .meta(Map.of()) // non-null meta as a workaround for bug
-                        .build()
-        );
+                toolNotifier.progress(exchange, progressToken, 0.0, "Start getting temperature from open meteo");
 
-        exchange.progressNotification(
-                new ProgressNotification(progressToken, 0.0, 1.0, "Start getting temperature from open meteo")
-        );
+                WeatherInfo weather = await(weatherFuture);
 
-        WeatherInfo weather = openMeteoGateway.getWeather(latitude, longitude);
+                log.debug("Weather info: {}", weather);
 
-        log.info("Weather info: {}", weather);
+                if (properties.streamWeatherProgress()) {
+                    toolNotifier.progressDetails(exchange, progressToken, 0.25,
+                            () -> WeatherResponseFormatter.formatWeatherDetails(weather));
+                }
 
-        String poem = poemSamplingService.generatePoem(exchange, progressToken, weather);
+                String poem = poemSamplingService.generatePoem(exchange, progressToken, weather);
 
-        exchange.progressNotification(new ProgressNotification(progressToken, 1.0, 1.0, "Task completed"));
+                toolNotifier.progress(exchange, progressToken, 1.0, "Task completed");
 
-        String finalResponse = formatFinalResponse(poem, weather);
+                String finalResponse = WeatherResponseFormatter.formatFinalResponse(poem, weather);
 
-        log.info("------------------------------------");
-        log.info("Final response:\n{}", finalResponse);
-        log.info("------------------------------------");
+                log.debug("Final response:\n{}", finalResponse);
 
-        return finalResponse;
+                return finalResponse;
+            }
+        });
     }
 
-    private String formatFinalResponse(String poem, WeatherInfo weather) {
-        String poemContext = StringUtils.hasText(poem)
-                ? "Weather Poem:\n%s".formatted(poem)
-                : "";
+    /**
+     * MCP tool for retrieving the current temperature for several geographic locations in one call.
+     * <br>
+     * Cached locations are resolved locally, the rest are fetched with a single multi-coordinate OpenMeteo request,
+     * and one poem is generated for all locations, instead of a tool call, an OpenMeteo request and a sampling
+     * request per location.
+     *
+     * @param exchange      provides access to server-client communication capabilities
+     * @param progressToken enables progress tracking
+     * @param meta          request metadata, carries the client's trace context
+     */
+    @McpTool(description = "Get the temperature (in celsius) for several locations at once")
+    public String getTemperatures(McpSyncServerExchange exchange,
+                                  @McpToolParam(description = "The locations with their latitude and longitude")
+                                  List<Location> locations,
+                                  @McpProgressToken
+                                  String progressToken,
+                                  McpMeta meta) {
+
+        return toolObservations.toolCall("getTemperatures", meta).observe(() -> {
+            try (var permit = toolConcurrencyLimiter.acquire("getTemperatures")) {
+                log.info("getTemperatures called with {} locations, progressToken={}", locations.size(), progressToken);
+
+                CompletableFuture<List<WeatherInfo>> weatherFuture =
+                        CompletableFuture.supplyAsync(() -> openMeteoGateway.getWeather(locations), toolExecutor);
+
+                toolNotifier.log(exchange, LoggingLevel.INFO,
+                        () -> "getTemperatures called with locations=%s".formatted(locations));
+
+                toolNotifier.progress(exchange, progressToken, 0.0, "Start getting temperatures from open meteo");
+
+                List<WeatherInfo> weather = await(weatherFuture);
+
+                log.debug("Weather info: {}", weather);
+
+                if (properties.streamWeatherProgress()) {
+                    toolNotifier.progressDetails(exchange, progressToken, 0.25,
+                            () -> WeatherResponseFormatter.formatWeatherDetails(weather));
+                }
+
+                String poem = poemSamplingService.generatePoem(exchange, progressToken, weather);
+
+                toolNotifier.progress(exchange, progressToken, 1.0, "Task completed");
+
+                String finalResponse = WeatherResponseFormatter.formatFinalResponse(poem, weather);
+
+                log.debug("Final response:\n{}", finalResponse);
+
+                return finalResponse;
+            }
+        });
+    }
 
-        return """
-                %s
-                Weather details: %.2f°C at (%.4f, %.4f)
-                """.formatted(poemContext, weather.temperature(), weather.latitude(), weather.longitude());
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
     }
 }
\ No newline at end of file
@@ -1,17 +1,101 @@
 package com.glvov.springaimcpserver.tools.sampling;
 
+import com.glvov.springaimcpserver.config.PoemCacheProperties;
+import com.glvov.springaimcpserver.config.PoemSamplingProperties;
+import com.glvov.springaimcpserver.functional.cache.PoemCache;
+import com.glvov.springaimcpserver.functional.cache.SingleFlight;
 import com.glvov.springaimcpserver.model.WeatherInfo;
+import com.glvov.springaimcpserver.tools.ToolNotifier;
+import com.glvov.springaimcpserver.tools.ToolObservations;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.transport.Kind;
+import io.micrometer.observation.transport.SenderContext;
+import io.modelcontextprotocol.server.McpAsyncServerExchange;
 import io.modelcontextprotocol.server.McpSyncServerExchange;
+import io.modelcontextprotocol.spec.McpError;
 import io.modelcontextprotocol.spec.McpSchema.*;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 @Component
 @Slf4j
 public class PoemSamplingService {
 
+    private static final String SYSTEM_PROMPT = "You are a poet!";
+    private static final String SAMPLING_ABSENCE_MESSAGE =
+            "MCP Server cannot perform sampling, because MCP Client doesn't provide sampling capability";
+
+    private static final String GENERATION = "poem.generation";
+    private static final String SAMPLING = "poem.sampling.request";
+
+    private static final String OUTCOME = "outcome";
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_ERROR = "error";
+    private static final String FALLBACK_DEADLINE = "deadline";
+    private static final String FALLBACK_CAPACITY = "capacity";
+    private static final String FALLBACK_CLIENT_ERROR = "client-error";
+    private static final String FALLBACK_CLIENT_OVERLOADED = "client-overloaded";
+
+    // how the MCP Client rejects sampling requests it has no capacity for, see its SamplingExecutor
+    private static final int CLIENT_OVERLOADED_CODE = -32001;
+    private static final String CLIENT_OVERLOADED_MESSAGE = "Sampling overloaded";
+
+    private final PoemCache poemCache;
+    private final PoemCacheProperties poemCacheProperties;
+    private final PoemSamplingProperties samplingProperties;
+    private final ExecutorService toolExecutor;
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+    private final ToolNotifier toolNotifier;
+    private final SingleFlight<PoemCache.Key, String> inFlightSamplings = new SingleFlight<>();
+    private final Semaphore samplingPermits;
+
+
+    public PoemSamplingService(PoemCache poemCache,
+                               PoemCacheProperties poemCacheProperties,
+                               PoemSamplingProperties samplingProperties,
+                               ExecutorService toolExecutor,
+                               MeterRegistry meterRegistry,
+                               ObservationRegistry observationRegistry,
+                               ToolNotifier toolNotifier) {
+        this.poemCache = poemCache;
+        this.poemCacheProperties = poemCacheProperties;
+        this.samplingProperties = samplingProperties;
+        this.toolExecutor = toolExecutor;
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
+        this.toolNotifier = toolNotifier;
+        this.samplingPermits = new Semaphore(samplingProperties.maxConcurrentRequests());
+
+        Gauge.builder("poem.sampling.active", samplingPermits,
+                        permits -> samplingProperties.maxConcurrentRequests() - permits.availablePermits())
+                .description("Sampling requests awaiting the client LLM")
+                .register(meterRegistry);
+
+        FunctionCounter.builder("poem.sampling.coalesced", inFlightSamplings, SingleFlight::coalescedCount)
+                .description("Poems served by an identical in-flight sampling request")
+                .register(meterRegistry);
+        Gauge.builder("poem.sampling.in.flight", inFlightSamplings, SingleFlight::inFlightCount)
+                .register(meterRegistry);
+    }
 
     /**
      * Sampling Capability - the server can request the client's LLM to generate content.
@@ -20,41 +104,292 @@ public class PoemSamplingService {
      * demonstrating the bidirectional AI interaction pattern between MCP server and MCP client.
      */
     public String generatePoem(McpSyncServerExchange exchange, String progressToken, WeatherInfo weather) {
+        return generatePoem(exchange, progressToken, List.of(weather));
+    }
+
+    /**
+     * Generates one poem about the weather in all given locations with a single sampling request.
+     * <br>
+     * With {@code weather.poem-cache} enabled a poem for the same normalized forecast is reused,
+     * and concurrent calls for the same forecast share one sampling request.
+     * <br>
+     * Observed as {@code poem.generation}, cache hits included, the sampling request itself as {@code poem.sampling}.
+     */
+    public String generatePoem(McpSyncServerExchange exchange, String progressToken, List<WeatherInfo> weather) {
+        return generation().observe(() -> generatePoemObserved(exchange, progressToken, weather));
+    }
+
+    private String generatePoemObserved(McpSyncServerExchange exchange, String progressToken, List<WeatherInfo> weather) {
         if (exchange.getClientCapabilities().sampling() == null) {
             logSamplingAbsence(exchange);
             return null;
         }
 
-        log.info("Starting poem sampling...");
+        if (!poemCache.isEnabled()) {
+            return samplePoem(exchange, progressToken, weather);
+        }
 
-        exchange.progressNotification(new ProgressNotification(progressToken, 0.5, 1.0, "Start sampling"));
+        PoemCache.Key key = poemCache.keyOf(SYSTEM_PROMPT, weather);
+        String cached = poemCache.get(key);
+        if (cached != null) {
+            log.debug("Poem cache hit for {}", key);
+            return cached;
+        }
 
-        String userPrompt = """
-                Weather forecast: %s°C
-                Location: (%s, %s)
-                Please write an epic Shakespearean-style poem about this weather.
-                """.formatted(weather.temperature(), weather.latitude(), weather.longitude());
+        return inFlightSamplings.execute(key, () -> {
+            // another flight for the same key may have completed between the cache miss and this one
+            String poem = poemCache.get(key);
+            if (poem == null) {
+                poem = samplePoem(exchange, progressToken, weather);
+                if (poem != null) {
+                    poemCache.put(key, poem);
+                }
+            }
+            return poem;
+        }, poemCacheProperties.coalescingTimeout());
+    }
 
-        var request = CreateMessageRequest.builder()
-                .systemPrompt("You are a poet!")
-                .messages(List.of(new SamplingMessage(Role.USER, new TextContent(userPrompt))))
-                .build();
+    /**
+     * Sends the sampling request within the {@code weather.sampling} budget.
+     * The current trace context is sent in the request {@code _meta}, so the client continues the trace.
+     *
+     * @return the poem, or {@code null} when the deadline or the concurrency cap is hit,
+     * or the client responds to the sampling request with an error
+     */
+    private String samplePoem(McpSyncServerExchange exchange, String progressToken, List<WeatherInfo> weather) {
+        if (!samplingPermits.tryAcquire()) {
+            return fallback(exchange, FALLBACK_CAPACITY);
+        }
+        // held by this thread until the poem is in, or the request is abandoned, like the async variant holds it
+        try {
+            return samplePoemWithPermit(exchange, progressToken, weather);
+        } finally {
+            samplingPermits.release();
+        }
+    }
+
+    private String samplePoemWithPermit(McpSyncServerExchange exchange,
+                                        String progressToken,
+                                        List<WeatherInfo> weather) {
+        log.debug("Starting poem sampling...");
+
+        Map<String, Object> meta = new HashMap<>();
+        Observation observation = sampling(meta).start();
+        Future<CreateMessageResult> sampling;
+        try {
+            toolNotifier.progress(exchange, progressToken, 0.5, "Start sampling");
+
+            var request = poemRequest(weather, meta);
+
+            // the sync exchange has no timeout of its own, so the request is awaited with the deadline instead
+            sampling = toolExecutor.submit(() -> exchange.createMessage(request));
+        } catch (RuntimeException e) {
+            stop(observation.error(e), OUTCOME_ERROR);
+            throw e;
+        }
+
+        try {
+            String poem = ((TextContent) sampling.get(samplingProperties.deadline().toMillis(), TimeUnit.MILLISECONDS)
+                    .content()).text();
+            stop(observation, OUTCOME_SUCCESS);
 
-        String poem = ((TextContent) exchange.createMessage(request).content()).text();
+            log.debug("Poem is successfully generated on the MCP Client side. Size: {}", poem.length());
 
-        log.info("Poem is successfully generated on the MCP Client side. Size: {}", poem.length());
+            return poem;
+        } catch (TimeoutException e) {
+            // interrupts the thread blocked on the response, so the abandoned request stops awaiting the client
+            sampling.cancel(true);
+            stop(observation, FALLBACK_DEADLINE);
+            return fallback(exchange, FALLBACK_DEADLINE);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof McpError error) {
+                String reason = fallbackReason(error);
+                stop(observation, reason);
+                return fallback(exchange, reason);
+            }
+            stop(observation.error(e.getCause()), OUTCOME_ERROR);
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            sampling.cancel(true);
+            Thread.currentThread().interrupt();
+            stop(observation.error(e), OUTCOME_ERROR);
+            throw new IllegalStateException("Interrupted while waiting for poem sampling", e);
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #generatePoem(McpSyncServerExchange, String, List)} for the async MCP server.
+     *
+     * @return the poem, or an empty {@link Mono} when the client doesn't provide sampling capability
+     */
+    public Mono<String> generatePoem(McpAsyncServerExchange exchange, String progressToken, List<WeatherInfo> weather) {
+        return ToolObservations.observe(generation(), () -> generatePoemObserved(exchange, progressToken, weather));
+    }
+
+    private Mono<String> generatePoemObserved(McpAsyncServerExchange exchange,
+                                              String progressToken,
+                                              List<WeatherInfo> weather) {
+        if (exchange.getClientCapabilities().sampling() == null) {
+            log.warn("Sampling skipped, MCP Client doesn't provide sampling capability");
+            return toolNotifier.log(exchange, LoggingLevel.WARNING, () -> SAMPLING_ABSENCE_MESSAGE).then(Mono.empty());
+        }
+
+        if (!poemCache.isEnabled()) {
+            return samplePoem(exchange, progressToken, weather);
+        }
 
-        return poem;
+        PoemCache.Key key = poemCache.keyOf(SYSTEM_PROMPT, weather);
+        String cached = poemCache.get(key);
+        if (cached != null) {
+            log.debug("Poem cache hit for {}", key);
+            return Mono.just(cached);
+        }
+
+        // the leader's sampling is subscribed through a future, so it gets the caller's context (trace) explicitly
+        return Mono.deferContextual(context -> Mono.fromFuture(() -> inFlightSamplings.executeAsync(key,
+                () -> samplePoem(exchange, progressToken, weather)
+                        .doOnNext(poem -> poemCache.put(key, poem))
+                        .contextWrite(context)
+                        .toFuture(),
+                poemCacheProperties.coalescingTimeout())));
+    }
+
+    public Mono<String> generatePoem(McpAsyncServerExchange exchange, String progressToken, WeatherInfo weather) {
+        return generatePoem(exchange, progressToken, List.of(weather));
+    }
+
+    private Mono<String> samplePoem(McpAsyncServerExchange exchange, String progressToken, List<WeatherInfo> weather) {
+        return Mono.defer(() -> {
+            if (!samplingPermits.tryAcquire()) {
+                return fallback(exchange, FALLBACK_CAPACITY);
+            }
+
+            log.debug("Starting poem sampling...");
+
+            Map<String, Object> meta = new HashMap<>();
+            Observation observation = sampling(meta);
+
+            // the request is built once the observation is started, i.e. once its trace context is in the meta
+            return ToolObservations.observe(observation, () -> toolNotifier
+                            .progress(exchange, progressToken, 0.5, "Start sampling")
+                            .then(exchange.createMessage(poemRequest(weather, meta)))
+                            .timeout(samplingProperties.deadline())
+                            .map(result -> ((TextContent) result.content()).text())
+                            .doOnNext(poem -> {
+                                observation.lowCardinalityKeyValue(OUTCOME, OUTCOME_SUCCESS);
+                                log.debug("Poem is successfully generated on the MCP Client side. Size: {}", poem.length());
+                            })
+                            .onErrorResume(TimeoutException.class, e -> {
+                                observation.lowCardinalityKeyValue(OUTCOME, FALLBACK_DEADLINE);
+                                return fallback(exchange, FALLBACK_DEADLINE);
+                            })
+                            .onErrorResume(McpError.class, e -> {
+                                String reason = fallbackReason(e);
+                                observation.lowCardinalityKeyValue(OUTCOME, reason);
+                                return fallback(exchange, reason);
+                            })
+                            .doOnError(e -> observation.lowCardinalityKeyValue(OUTCOME, OUTCOME_ERROR)))
+                    .doFinally(signal -> samplingPermits.release());
+        });
+    }
+
+    private String fallback(McpSyncServerExchange exchange, String reason) {
+        countFallback(reason);
+        toolNotifier.log(exchange, LoggingLevel.WARNING, () -> fallbackMessage(reason));
+        return null;
+    }
+
+    private Mono<String> fallback(McpAsyncServerExchange exchange, String reason) {
+        countFallback(reason);
+        return toolNotifier.log(exchange, LoggingLevel.WARNING, () -> fallbackMessage(reason)).then(Mono.empty());
+    }
+
+    private void countFallback(String reason) {
+        log.warn("Poem sampling skipped ({}), responding with weather details only", reason);
+
+        meterRegistry.counter("poem.sampling.fallbacks", "reason", reason).increment();
+    }
+
+    private String fallbackMessage(String reason) {
+        return switch (reason) {
+            case FALLBACK_CAPACITY -> "Too many poems are being sampled, responding with weather details only";
+            case FALLBACK_DEADLINE ->
+                    "Poem sampling exceeded %s, responding with weather details only".formatted(samplingProperties.deadline());
+            case FALLBACK_CLIENT_OVERLOADED -> "MCP Client is sampling too many poems, responding with weather details only";
+            default -> "MCP Client failed to sample the poem, responding with weather details only";
+        };
+    }
+
+    /**
+     * The client responded to the sampling request with an error: it rejected the request for lack of capacity,
+     * or failed otherwise, e.g. its LLM did.
+     * <br>
+     * The client's sampling handler may wrap its rejection into a generic internal error, keeping only the message
+     * in the error data, so the rejection is recognized by its message as well as by its code.
+     */
+    private static String fallbackReason(McpError error) {
+        JSONRPCResponse.JSONRPCError jsonRpcError = error.getJsonRpcError();
+        log.debug("Sampling request failed on the MCP Client side: {}", jsonRpcError);
+
+        boolean overloaded = jsonRpcError != null
+                && (Objects.equals(jsonRpcError.code(), CLIENT_OVERLOADED_CODE)
+                || String.valueOf(jsonRpcError.message()).contains(CLIENT_OVERLOADED_MESSAGE)
+                || String.valueOf(jsonRpcError.data()).contains(CLIENT_OVERLOADED_MESSAGE));
+        return overloaded ? FALLBACK_CLIENT_OVERLOADED : FALLBACK_CLIENT_ERROR;
+    }
+
+    private Observation generation() {
+        return Observation.createNotStarted(GENERATION, observationRegistry)
+                .contextualName("generate poem");
+    }
+
+    /**
+     * Time the client LLM took to sample a poem, tagged by outcome, and the client span of the sampling request.
+     *
+     * @param meta the request {@code _meta} the trace context is written to once the observation is started
+     */
+    private Observation sampling(Map<String, Object> meta) {
+        var context = new SenderContext<Map<String, Object>>(Map::put, Kind.CLIENT);
+        context.setCarrier(meta);
+
+        return Observation.createNotStarted(SAMPLING, () -> context, observationRegistry)
+                .contextualName("mcp sampling createMessage");
+    }
+
+    private static void stop(Observation observation, String outcome) {
+        observation.lowCardinalityKeyValue(OUTCOME, outcome).stop();
+    }
+
+    /**
+     * Package-private for the benchmarks.
+     */
+    static CreateMessageRequest poemRequest(List<WeatherInfo> weather) {
+        return poemRequest(weather, Map.of());
+    }
+
+    private static CreateMessageRequest poemRequest(List<WeatherInfo> weather, Map<String, Object> meta) {
+        String forecasts = weather.stream()
+                .map(info -> """
+                        Weather forecast: %s°C
+                        Location: (%s, %s)
+                        """.formatted(info.temperature(), info.latitude(), info.longitude()))
+                .collect(Collectors.joining());
+
+        String userPrompt = forecasts + "Please write an epic Shakespearean-style poem about this weather.\n";
+
+        return CreateMessageRequest.builder()
+                .systemPrompt(SYSTEM_PROMPT)
+                .messages(List.of(new SamplingMessage(Role.USER, new TextContent(userPrompt))))
+                .meta(meta)
+                .build();
     }
 
     private void logSamplingAbsence(McpSyncServerExchange exchange) {
         log.warn("Sampling skipped, MCP Client doesn't provide sampling capability");
 
-        exchange.loggingNotification(
-                LoggingMessageNotification.builder()
-                        .level(LoggingLevel.WARNING)
-                        .data("MCP Server cannot perform sampling, because MCP Client doesn't provide sampling capability")
-                        .build()
-        );
+        toolNotifier.log(exchange, LoggingLevel.WARNING, () -> SAMPLING_ABSENCE_MESSAGE);
     }
 }
@@ -0,0 +1,69 @@
+package com.glvov.springaimcpserver.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RouteConcurrencyLimiterTest {
+
+    private static final URI FORECAST_URI = URI.create("http://localhost:8081/v1/forecast");
+
+    private final RouteConcurrencyLimiter limiter = new RouteConcurrencyLimiter(1, Duration.ofMillis(50));
+
+
+    @Test
+    void holdsThePermitUntilTheResponseBodyIsClosed() throws IOException {
+        ClientHttpResponse response = intercept();
+        response.getBody().readAllBytes();
+
+        assertThatThrownBy(this::intercept)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("No free connection");
+
+        response.getBody().close();
+
+        intercept().close();
+    }
+
+    @Test
+    void sharesThePermitsOfARouteWithTheWebClient() throws IOException {
+        ClientResponse response = filter().block();
+
+        assertThatThrownBy(this::intercept).isInstanceOf(IOException.class);
+
+        assertThat(response.bodyToMono(String.class).block()).isEqualTo("{}");
+
+        ClientHttpResponse blockingResponse = intercept();
+
+        assertThatThrownBy(() -> filter().block()).hasRootCauseInstanceOf(IOException.class);
+
+        blockingResponse.close();
+
+        assertThat(filter().flatMap(r -> r.bodyToMono(String.class)).block()).isEqualTo("{}");
+    }
+
+
+    private ClientHttpResponse intercept() throws IOException {
+        return limiter.intercept(new MockClientHttpRequest(HttpMethod.GET, FORECAST_URI), new byte[0],
+                (request, body) -> new MockClientHttpResponse("{}".getBytes(StandardCharsets.UTF_8), HttpStatus.OK));
+    }
+
+    private Mono<ClientResponse> filter() {
+        return limiter.filter(ClientRequest.create(HttpMethod.GET, FORECAST_URI).build(),
+                request -> Mono.just(ClientResponse.create(HttpStatus.OK).body("{}").build()));
+    }
+}
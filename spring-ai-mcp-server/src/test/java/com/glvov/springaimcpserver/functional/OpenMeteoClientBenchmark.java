@@ -0,0 +1,139 @@
+package com.glvov.springaimcpserver.functional;
+
+import com.glvov.springaimcp.stub.OpenMeteoStubServer;
+import com.glvov.springaimcpserver.config.OpenMeteoClientConfig;
+import com.glvov.springaimcpserver.config.OpenMeteoProperties;
+import com.glvov.springaimcpserver.model.OpenMeteoResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+import java.lang.management.ManagementFactory;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Per-call latency and allocation of a fresh {@code RestClient.create()} per call vs the shared
+ * {@link OpenMeteoClientConfig} client, both against a local {@link OpenMeteoStubServer},
+ * and the shared client's per-route limit under concurrent calls.
+ * <br>
+ * Not part of the regular test run (the class name doesn't match surefire's includes), run it explicitly:
+ * <pre><code>
+ * mvn test -Dtest=OpenMeteoClientBenchmark
+ * </code></pre>
+ */
+class OpenMeteoClientBenchmark {
+
+    private static final int WARMUP_CALLS = 1_000;
+    private static final int MEASURED_CALLS = 3_000;
+    private static final int MAX_CONNECTIONS_PER_ROUTE = 20;
+    private static final int CONCURRENT_CALLS = 200;
+
+    private final com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+
+    @Test
+    void compareFreshAndSharedClients() throws Exception {
+        try (OpenMeteoStubServer stub = OpenMeteoStubServer.start()) {
+            String uri = forecastUri(stub);
+            RestClient shared = sharedClient(stub);
+
+            long freshAllocatedPerCall = run("RestClient.create() per call", () -> RestClient.create()
+                    .get()
+                    .uri(uri)
+                    .retrieve()
+                    .body(OpenMeteoResponse.class));
+
+            long sharedAllocatedPerCall = run("shared pooled client", () -> shared
+                    .get()
+                    .uri(uri)
+                    .retrieve()
+                    .body(OpenMeteoResponse.class));
+
+            assertThat(stub.requestCount()).isEqualTo(2L * (WARMUP_CALLS + MEASURED_CALLS));
+            assertThat(sharedAllocatedPerCall).isLessThan(freshAllocatedPerCall);
+        }
+    }
+
+    @Test
+    void sharedClientStaysWithinMaxConnectionsPerRoute() throws Exception {
+        try (OpenMeteoStubServer stub = OpenMeteoStubServer.start().latency(Duration.ofMillis(20))) {
+            String uri = forecastUri(stub);
+            RestClient shared = sharedClient(stub);
+
+            List<Future<OpenMeteoResponse>> calls = new ArrayList<>();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < CONCURRENT_CALLS; i++) {
+                    calls.add(executor.submit(() -> shared.get().uri(uri).retrieve().body(OpenMeteoResponse.class)));
+                }
+            }
+
+            for (Future<OpenMeteoResponse> call : calls) {
+                assertThat(call.get().current()).isNotNull();
+            }
+            System.out.printf("%d concurrent calls | peak concurrent requests on the stub: %d%n",
+                    CONCURRENT_CALLS, stub.peakConcurrentRequests());
+            assertThat(stub.peakConcurrentRequests()).isBetween(2, MAX_CONNECTIONS_PER_ROUTE);
+        }
+    }
+
+    /**
+     * @return bytes allocated per measured call
+     */
+    private long run(String name, Supplier<OpenMeteoResponse> call) {
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            assertThat(call.get().current()).isNotNull();
+        }
+        System.gc();
+
+        long[] latencies = new long[MEASURED_CALLS];
+        long allocatedBefore = threadMXBean.getTotalThreadAllocatedBytes();
+        long threadsBefore = threadMXBean.getTotalStartedThreadCount();
+
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            long start = System.nanoTime();
+            OpenMeteoResponse response = call.get();
+            latencies[i] = System.nanoTime() - start;
+            assertThat(response.current()).isNotNull();
+        }
+
+        long allocatedPerCall = (threadMXBean.getTotalThreadAllocatedBytes() - allocatedBefore) / MEASURED_CALLS;
+        long threadsStarted = threadMXBean.getTotalStartedThreadCount() - threadsBefore;
+        Arrays.sort(latencies);
+
+        System.out.printf("%-30s avg: %7.1f us | p50: %7.1f us | p99: %8.1f us | alloc/call: %8d B | threads started: %d%n",
+                name,
+                Arrays.stream(latencies).average().orElse(0) / 1_000,
+                latencies[latencies.length / 2] / 1_000.0,
+                latencies[(int) (latencies.length * 0.99)] / 1_000.0,
+                allocatedPerCall,
+                threadsStarted);
+
+        return allocatedPerCall;
+    }
+
+    private static RestClient sharedClient(OpenMeteoStubServer stub) {
+        var properties = new OpenMeteoProperties(stub.baseUrl(), HttpClient.Version.HTTP_1_1,
+                Duration.ofSeconds(2), Duration.ofSeconds(5), MAX_CONNECTIONS_PER_ROUTE, Duration.ofSeconds(10),
+                Duration.ofSeconds(10), 100);
+        var config = new OpenMeteoClientConfig();
+        return config.openMeteoRestClient(config.openMeteoHttpClient(properties),
+                config.openMeteoRouteConcurrencyLimiter(properties), properties,
+                ObservationRegistry.NOOP, new SimpleMeterRegistry());
+    }
+
+    private static String forecastUri(OpenMeteoStubServer stub) {
+        return stub.baseUrl() + "/v1/forecast?latitude=40.63&longitude=22.94&current=temperature_2m";
+    }
+}
@@ -0,0 +1,91 @@
+package com.glvov.springaimcpserver.functional.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpiringCacheTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T12:00:00Z"));
+
+
+    @Test
+    void returnsValueUntilExpiration() {
+        var cache = new ExpiringCache<String, Integer>(10, clock);
+        cache.put("a", 1, clock.instant().plusSeconds(60));
+
+        assertThat(cache.get("a")).isEqualTo(1);
+
+        clock.advance(Duration.ofSeconds(60));
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        var cache = new ExpiringCache<String, Integer>(2, clock);
+        Instant expiresAt = clock.instant().plusSeconds(60);
+        cache.put("a", 1, expiresAt);
+        cache.put("b", 2, expiresAt);
+        cache.get("a");
+        cache.put("c", 3, expiresAt);
+
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("c")).isEqualTo(3);
+        assertThat(cache.evictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void peeksWithoutCountingRequests() {
+        var cache = new ExpiringCache<String, Integer>(10, clock);
+        cache.put("a", 1, clock.instant().plusSeconds(60));
+
+        assertThat(cache.peek("a")).isEqualTo(1);
+        assertThat(cache.peek("b")).isNull();
+
+        clock.advance(Duration.ofSeconds(60));
+
+        assertThat(cache.peek("a")).isNull();
+        assertThat(cache.hitCount()).isZero();
+        assertThat(cache.missCount()).isZero();
+    }
+
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
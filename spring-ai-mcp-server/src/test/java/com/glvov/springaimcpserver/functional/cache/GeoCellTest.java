@@ -0,0 +1,15 @@
+package com.glvov.springaimcpserver.functional.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeoCellTest {
+
+    @Test
+    void snapsNearbyCoordinatesToOneCell() {
+        assertThat(GeoCell.of(40.6317, 22.9353, 0.01))
+                .isEqualTo(GeoCell.of(40.63, 22.94, 0.01));
+        assertThat(GeoCell.of(40.6317, 22.9353, 0.01).latitude()).isEqualTo(40.63);
+    }
+}
@@ -0,0 +1,60 @@
+package com.glvov.springaimcpserver.functional.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HeavyHittersTest {
+
+    private final HeavyHitters<String> sketch = new HeavyHitters<>(4);
+
+
+    @Test
+    void tracksFrequentKeysAmongManyRareOnesInBoundedSpace() {
+        for (int i = 0; i < 100; i++) {
+            sketch.offer("hot");
+            if (i % 2 == 0) {
+                sketch.offer("warm");
+            }
+            sketch.offer("rare-" + i);
+        }
+
+        assertThat(sketch.size()).isEqualTo(4);
+        assertThat(sketch.top(10, 40)).containsExactly("hot", "warm");
+        assertThat(sketch.top(1, 0)).containsExactly("hot");
+    }
+
+    @Test
+    void untrackedKeyReplacesTheSmallestCount() {
+        offer("a", 3);
+        offer("b", 2);
+        offer("c", 1);
+        offer("d", 4);
+
+        sketch.offer("e");
+
+        assertThat(sketch.size()).isEqualTo(4);
+        // e took over the count of c, so only one of its two counted occurrences is guaranteed
+        assertThat(sketch.top(10, 1)).containsExactlyInAnyOrder("d", "a", "b", "e");
+        assertThat(sketch.top(10, 2)).containsExactly("d", "a", "b");
+    }
+
+    @Test
+    void decayForgetsKeysNotSeenRecently() {
+        sketch.offer("once");
+        for (int i = 0; i < 8; i++) {
+            sketch.offer("hot");
+        }
+
+        sketch.decay();
+
+        assertThat(sketch.size()).isOne();
+        assertThat(sketch.top(10, 4)).containsExactly("hot");
+    }
+
+    private void offer(String key, int times) {
+        for (int i = 0; i < times; i++) {
+            sketch.offer(key);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.glvov.springaimcpserver.functional.cache;
+
+import com.glvov.springaimcpserver.config.PoemCacheProperties;
+import com.glvov.springaimcpserver.model.WeatherInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PoemCacheTest {
+
+    private final PoemCache cache = new PoemCache(
+            new PoemCacheProperties(true, 10, Duration.ofHours(1), 1.0, 0.1, Duration.ofMinutes(2)),
+            new SimpleMeterRegistry());
+
+
+    @Test
+    void sharesPoemBetweenNearbyForecasts() {
+        var key = cache.keyOf("You are a poet!", List.of(new WeatherInfo(40.6317, 22.9353, 18.2)));
+        cache.put(key, "A poem");
+
+        var nearby = cache.keyOf("You are a poet!", List.of(new WeatherInfo(40.6120, 22.9410, 17.9)));
+
+        assertThat(nearby).isEqualTo(key);
+        assertThat(cache.get(nearby)).isEqualTo("A poem");
+    }
+
+    @Test
+    void separatesDifferentTemperaturesAndPrompts() {
+        var weather = List.of(new WeatherInfo(40.6317, 22.9353, 18.2));
+        var key = cache.keyOf("You are a poet!", weather);
+
+        assertThat(cache.keyOf("You are a poet!", List.of(new WeatherInfo(40.6317, 22.9353, 18.6)))).isNotEqualTo(key);
+        assertThat(cache.keyOf("You are a critic!", weather)).isNotEqualTo(key);
+    }
+}
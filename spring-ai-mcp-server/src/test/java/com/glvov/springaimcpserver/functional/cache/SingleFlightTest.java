@@ -0,0 +1,93 @@
+package com.glvov.springaimcpserver.functional.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+
+
+    @Test
+    void coalescesConcurrentCallsIntoOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("key", () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return 42;
+                }, TIMEOUT)));
+            }
+
+            while (singleFlight.coalescedCount() < callers - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            for (Future<Integer> result : results) {
+                assertThat(result.get()).isEqualTo(42);
+            }
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(singleFlight.inFlightCount()).isZero();
+    }
+
+    @Test
+    void failedLoadDoesNotPoisonSubsequentCalls() {
+        assertThatThrownBy(() -> singleFlight.execute("key", () -> {
+            throw new IllegalArgumentException("boom");
+        }, TIMEOUT)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(singleFlight.execute("key", () -> 7, TIMEOUT)).isEqualTo(7);
+    }
+
+    @Test
+    void waitingCallerTimesOut() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Integer> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+                await(release);
+                return 1;
+            }, TIMEOUT));
+
+            while (singleFlight.inFlightCount() == 0) {
+                Thread.onSpinWait();
+            }
+
+            assertThatThrownBy(() -> singleFlight.execute("key", () -> 2, Duration.ofMillis(50)))
+                    .isInstanceOf(IllegalStateException.class);
+
+            release.countDown();
+            assertThat(leader.get()).isEqualTo(1);
+        }
+    }
+
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
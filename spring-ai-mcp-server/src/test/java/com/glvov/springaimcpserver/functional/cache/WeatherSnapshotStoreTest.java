@@ -0,0 +1,78 @@
+package com.glvov.springaimcpserver.functional.cache;
+
+import com.glvov.springaimcpserver.config.WeatherCacheProperties;
+import com.glvov.springaimcpserver.config.WeatherSnapshotProperties;
+import com.glvov.springaimcpserver.model.OpenMeteoResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WeatherSnapshotStoreTest {
+
+    private static final OpenMeteoResponse.Current CURRENT =
+            new OpenMeteoResponse.Current(LocalDateTime.parse("2025-01-01T12:00"), 900, 18.2);
+
+    @TempDir
+    private Path directory;
+
+
+    @Test
+    void restoresLiveObservationsAfterReopening() {
+        GeoCell live = GeoCell.of(40.6317, 22.9353, 0.01);
+        GeoCell expired = GeoCell.of(52.52, 13.41, 0.01);
+        Instant expiresAt = Instant.now().plus(Duration.ofMinutes(10)).truncatedTo(ChronoUnit.MILLIS);
+
+        try (var store = store(100, 0.01)) {
+            store.put(live, CURRENT, expiresAt);
+            store.put(expired, CURRENT, Instant.now().minusSeconds(1));
+        }
+
+        try (var store = store(100, 0.01)) {
+            assertThat(store.get(live)).isEqualTo(new WeatherSnapshotStore.Snapshot(live, CURRENT, expiresAt));
+            assertThat(store.get(expired)).isNull();
+            assertThat(store.snapshots()).extracting(WeatherSnapshotStore.Snapshot::cell).containsExactly(live);
+
+            store.compact();
+
+            assertThat(store.size()).isOne();
+        }
+    }
+
+    @Test
+    void keepsFileSizeFixedAndRecreatesFileForAnotherGrid() throws Exception {
+        Instant expiresAt = Instant.now().plus(Duration.ofMinutes(10));
+
+        try (var store = store(4, 0.01)) {
+            for (int i = 0; i < 20; i++) {
+                store.put(GeoCell.of(40 + i, 22, 0.01), CURRENT, expiresAt);
+            }
+            assertThat(store.size()).isEqualTo(4);
+        }
+        long fileSize = Files.size(file());
+
+        try (var store = store(4, 0.1)) {
+            assertThat(store.size()).isZero();
+        }
+        assertThat(Files.size(file())).isEqualTo(fileSize);
+    }
+
+    private WeatherSnapshotStore store(int maxEntries, double gridDegrees) {
+        return new WeatherSnapshotStore(
+                new WeatherSnapshotProperties(true, file(), maxEntries, Duration.ofMinutes(5)),
+                new WeatherCacheProperties(true, 10, gridDegrees, Duration.ofSeconds(30), Duration.ofMinutes(15)),
+                new SimpleMeterRegistry());
+    }
+
+    private Path file() {
+        return directory.resolve("weather-snapshot.dat");
+    }
+}
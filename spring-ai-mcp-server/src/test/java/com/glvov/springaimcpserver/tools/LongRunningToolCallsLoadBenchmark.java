@@ -0,0 +1,153 @@
+package com.glvov.springaimcpserver.tools;
+
+import com.glvov.springaimcp.stub.OpenMeteoStubServer;
+import io.modelcontextprotocol.client.McpAsyncClient;
+import io.modelcontextprotocol.client.McpClient;
+import io.modelcontextprotocol.client.transport.HttpClientStreamableHttpTransport;
+import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
+import io.modelcontextprotocol.spec.McpSchema.CallToolResult;
+import io.modelcontextprotocol.spec.McpSchema.ClientCapabilities;
+import io.modelcontextprotocol.spec.McpSchema.CreateMessageRequest;
+import io.modelcontextprotocol.spec.McpSchema.CreateMessageResult;
+import io.modelcontextprotocol.spec.McpSchema.Role;
+import io.modelcontextprotocol.spec.McpSchema.TextContent;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test: how many concurrent long-running {@code getTemperature} calls one server instance holds.
+ * <br>
+ * Every session's sampling handler sleeps for {@code load.sampling-delay-ms}, imitating a slow client LLM,
+ * so each tool call stays in flight for at least that long. Every call must succeed, and with virtual threads
+ * all of them must be held at once. Not part of the regular test run, run it explicitly,
+ * once with virtual threads (the default) and once with the platform Tomcat pool:
+ * <pre><code>
+ * mvn test -Dtest=LongRunningToolCallsLoadBenchmark -Dload.sessions=1000
+ * mvn test -Dtest=LongRunningToolCallsLoadBenchmark -Dload.sessions=1000 -Dspring.threads.virtual.enabled=false
+ * </code></pre>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LongRunningToolCallsLoadBenchmark {
+
+    private static final int SESSIONS = Integer.getInteger("load.sessions", 400);
+    private static final Duration SAMPLING_DELAY = Duration.ofMillis(Long.getLong("load.sampling-delay-ms", 5_000));
+
+    private static OpenMeteoStubServer openMeteo;
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${spring.threads.virtual.enabled}")
+    private boolean virtualThreads;
+
+
+    @BeforeAll
+    static void startStub() throws Exception {
+        openMeteo = OpenMeteoStubServer.start();
+    }
+
+    @AfterAll
+    static void stopStub() {
+        openMeteo.close();
+    }
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("open-meteo.base-url", () -> openMeteo.baseUrl());
+        registry.add("open-meteo.http-version", () -> "HTTP_1_1");
+        registry.add("tool-concurrency.max-concurrent-calls.getTemperature", () -> SESSIONS);
+        registry.add("logging.level.root", () -> "WARN");
+    }
+
+    @Test
+    void holdConcurrentLongRunningToolCalls() {
+        AtomicInteger inSampling = new AtomicInteger();
+        AtomicInteger peakInSampling = new AtomicInteger();
+        AtomicInteger succeeded = new AtomicInteger();
+        ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+
+        long start = System.nanoTime();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < SESSIONS; i++) {
+                String progressToken = "load-" + i;
+                executor.submit(() -> {
+                    McpAsyncClient client = newClient(request -> Mono
+                            .fromRunnable(() -> peakInSampling.accumulateAndGet(inSampling.incrementAndGet(), Math::max))
+                            .then(Mono.delay(SAMPLING_DELAY))
+                            .doFinally(signal -> inSampling.decrementAndGet())
+                            .thenReturn(CreateMessageResult.builder()
+                                    .role(Role.ASSISTANT)
+                                    .content(new TextContent("A poem about the weather"))
+                                    .build()));
+                    try {
+                        client.initialize().block();
+                        CallToolResult result = client.callTool(CallToolRequest.builder()
+                                .name("getTemperature")
+                                .arguments(Map.of("latitude", 40.6317, "longitude", 22.9353))
+                                .progressToken(progressToken)
+                                .build()).block();
+                        if (Boolean.TRUE.equals(result.isError())) {
+                            failures.add(String.valueOf(result.content()));
+                        } else {
+                            succeeded.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failures.add(e.getClass().getSimpleName() + ": " + e.getMessage());
+                    } finally {
+                        client.closeGracefully().block();
+                    }
+                });
+            }
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        System.out.printf("""
+                        virtual threads: %s | sessions: %d | sampling delay: %s
+                        succeeded: %d | failed: %d | peak concurrent sampling calls: %d | wall time: %s
+                        """,
+                virtualThreads, SESSIONS, SAMPLING_DELAY,
+                succeeded.get(), failures.size(), peakInSampling.get(), elapsed);
+
+        assertThat(failures).as("failed tool calls").isEmpty();
+        assertThat(succeeded.get()).isEqualTo(SESSIONS);
+        // getTemperature is limited to SESSIONS concurrent calls
+        assertThat(peakInSampling.get()).isLessThanOrEqualTo(SESSIONS);
+        if (virtualThreads) {
+            // nothing but the tool limit bounds the calls held at once
+            assertThat(peakInSampling.get()).isEqualTo(SESSIONS);
+        }
+    }
+
+    /**
+     * Async client, so that a sleeping sampling handler doesn't hold a client thread
+     * and the client side is never the bottleneck.
+     */
+    private McpAsyncClient newClient(Function<CreateMessageRequest, Mono<CreateMessageResult>> sampling) {
+        var transport = HttpClientStreamableHttpTransport.builder("http://localhost:" + port).build();
+
+        return McpClient.async(transport)
+                .capabilities(ClientCapabilities.builder().sampling().build())
+                .sampling(sampling)
+                .requestTimeout(SAMPLING_DELAY.plusSeconds(60))
+                .build();
+    }
+}
@@ -0,0 +1,46 @@
+package com.glvov.springaimcpserver.tools;
+
+import com.glvov.springaimcpserver.config.ToolConcurrencyProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ToolConcurrencyLimiterTest {
+
+    private final ToolConcurrencyLimiter limiter = new ToolConcurrencyLimiter(
+            new ToolConcurrencyProperties(10, Duration.ofMillis(50), Map.of("getTemperature", 1)),
+            new SimpleMeterRegistry());
+
+
+    @Test
+    void sharesTheLimitOfAToolBetweenBlockingAndNonBlockingCalls() {
+        Sinks.One<String> firstCall = Sinks.one();
+        var first = limiter.limit("getTemperature", firstCall::asMono).subscribe();
+
+        assertThatThrownBy(() -> limiter.acquire("getTemperature"))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> limiter.limit("getTemperature", () -> Mono.just("second")).block())
+                .isInstanceOf(IllegalStateException.class);
+
+        firstCall.tryEmitValue("first");
+
+        assertThat(limiter.limit("getTemperature", () -> Mono.just("third")).block()).isEqualTo("third");
+        assertThat(first.isDisposed()).isTrue();
+    }
+
+    @Test
+    void releasesTheSlotOfACancelledCall() {
+        var call = limiter.limit("getTemperature", Mono::never).subscribe();
+
+        call.dispose();
+
+        limiter.acquire("getTemperature").close();
+    }
+}
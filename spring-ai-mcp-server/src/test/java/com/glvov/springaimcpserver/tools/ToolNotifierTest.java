@@ -0,0 +1,89 @@
+package com.glvov.springaimcpserver.tools;
+
+import com.glvov.springaimcpserver.config.ToolNotificationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.modelcontextprotocol.server.McpSyncServerExchange;
+import io.modelcontextprotocol.spec.McpSchema.LoggingLevel;
+import io.modelcontextprotocol.spec.McpSchema.LoggingMessageNotification;
+import io.modelcontextprotocol.spec.McpSchema.ProgressNotification;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ToolNotifierTest {
+
+    private final ToolNotifier notifier = new ToolNotifier(
+            new ToolNotificationProperties(LoggingLevel.INFO, 2, Duration.ofHours(1)),
+            new SimpleMeterRegistry());
+
+
+    @Test
+    void dropsLoggingBelowMinLevelWithoutFormattingAndLimitsRatePerSession() {
+        McpSyncServerExchange exchange = exchange("session-1");
+
+        notifier.log(exchange, LoggingLevel.DEBUG, () -> {
+            throw new AssertionError("message of a dropped notification must not be built");
+        });
+        for (int i = 0; i < 5; i++) {
+            notifier.log(exchange, LoggingLevel.INFO, () -> "called");
+        }
+        notifier.log(exchange("session-2"), LoggingLevel.INFO, () -> "called");
+
+        verify(exchange, times(2)).loggingNotification(any(LoggingMessageNotification.class));
+    }
+
+    @Test
+    void throttlesRepeatedProgressButAlwaysSendsNewProgressCompletionAndDetails() {
+        McpSyncServerExchange exchange = exchange("session-1");
+
+        notifier.progress(exchange, "token", 0.0, "Start");
+        notifier.progress(exchange, "token", 0.0, "Still starting");
+        notifier.progress(exchange, "token", 0.5, "Start sampling");
+        notifier.progressDetails(exchange, "token", 0.25, () -> "Weather details");
+        notifier.progress(exchange, "token", 0.5, "Still sampling");
+        notifier.progress(exchange, "token", 1.0, "Task completed");
+
+        var sent = ArgumentCaptor.forClass(ProgressNotification.class);
+        verify(exchange, times(4)).progressNotification(sent.capture());
+        assertThat(sent.getAllValues())
+                .extracting(ProgressNotification::message)
+                .containsExactly("Start", "Start sampling", "Weather details", "Task completed");
+    }
+
+    @Test
+    void throttlesRepeatedProgressPerProgressTokenOfSession() {
+        McpSyncServerExchange exchange = exchange("session-1");
+
+        // two tool calls of one session running at the same time
+        notifier.progress(exchange, "call-1", 0.0, "Start");
+        notifier.progress(exchange, "call-2", 0.0, "Start");
+        notifier.progress(exchange, "call-1", 0.5, "Start sampling");
+        notifier.progress(exchange, "call-2", 0.5, "Start sampling");
+        notifier.progress(exchange, "call-1", 0.5, "Still sampling");
+
+        var sent = ArgumentCaptor.forClass(ProgressNotification.class);
+        verify(exchange, times(4)).progressNotification(sent.capture());
+        assertThat(sent.getAllValues())
+                .extracting(ProgressNotification::progressToken, ProgressNotification::message)
+                .containsExactly(
+                        tuple("call-1", "Start"),
+                        tuple("call-2", "Start"),
+                        tuple("call-1", "Start sampling"),
+                        tuple("call-2", "Start sampling"));
+    }
+
+    private static McpSyncServerExchange exchange(String sessionId) {
+        McpSyncServerExchange exchange = mock(McpSyncServerExchange.class);
+        when(exchange.sessionId()).thenReturn(sessionId);
+        return exchange;
+    }
+}
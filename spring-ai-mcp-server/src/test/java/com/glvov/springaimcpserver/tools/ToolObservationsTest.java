@@ -0,0 +1,86 @@
+package com.glvov.springaimcpserver.tools;
+
+import brave.Tracing;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import brave.sampler.Sampler;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.brave.bridge.BraveCurrentTraceContext;
+import io.micrometer.tracing.brave.bridge.BravePropagator;
+import io.micrometer.tracing.brave.bridge.BraveTracer;
+import io.micrometer.tracing.brave.bridge.W3CPropagation;
+import io.micrometer.tracing.handler.PropagatingReceiverTracingObservationHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springaicommunity.mcp.annotation.McpMeta;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sampling of the tool call spans, with Brave set up as by the Spring Boot auto-configuration:
+ * {@code management.tracing.sampling.probability} is the ratio of the new traces only,
+ * a tool call follows the sampling decision of the client's trace.
+ */
+class ToolObservationsTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    // probability 0, no trace started on the server is sampled
+    private final Tracing tracing = Tracing.newBuilder()
+            .sampler(Sampler.create(0.0f))
+            .propagationFactory(new W3CPropagation())
+            .currentTraceContext(ThreadLocalCurrentTraceContext.create())
+            .build();
+    private final Tracer tracer = new BraveTracer(tracing.tracer(),
+            new BraveCurrentTraceContext(tracing.currentTraceContext()));
+    private final ToolObservations toolObservations = new ToolObservations(observationRegistry());
+
+
+    @AfterEach
+    void tearDown() {
+        tracing.close();
+    }
+
+    @Test
+    void continuesSampledClientTrace() {
+        TraceContext context = toolCallContext(new McpMeta(Map.of("traceparent", traceparent("01"))));
+
+        assertThat(context.traceId()).isEqualTo(TRACE_ID);
+        assertThat(context.sampled()).isTrue();
+    }
+
+    @Test
+    void keepsDecisionNotToSampleClientTrace() {
+        TraceContext context = toolCallContext(new McpMeta(Map.of("traceparent", traceparent("00"))));
+
+        assertThat(context.traceId()).isEqualTo(TRACE_ID);
+        assertThat(context.sampled()).isFalse();
+    }
+
+    @Test
+    void samplesNewTraceWithProbability() {
+        TraceContext context = toolCallContext(null);
+
+        assertThat(context.traceId()).isNotEqualTo(TRACE_ID);
+        assertThat(context.sampled()).isFalse();
+    }
+
+    private TraceContext toolCallContext(McpMeta meta) {
+        return toolObservations.toolCall("getTemperature", meta)
+                .observe(() -> tracer.currentTraceContext().context());
+    }
+
+    private ObservationRegistry observationRegistry() {
+        ObservationRegistry registry = ObservationRegistry.create();
+        registry.observationConfig().observationHandler(
+                new PropagatingReceiverTracingObservationHandler<>(tracer, new BravePropagator(tracing)));
+        return registry;
+    }
+
+    private static String traceparent(String flags) {
+        return "00-%s-00f067aa0ba902b7-%s".formatted(TRACE_ID, flags);
+    }
+}
@@ -0,0 +1,81 @@
+package com.glvov.springaimcpserver.tools.sampling;
+
+import com.glvov.springaimcpserver.config.PoemCacheProperties;
+import com.glvov.springaimcpserver.config.PoemSamplingProperties;
+import com.glvov.springaimcpserver.config.ToolNotificationProperties;
+import com.glvov.springaimcpserver.functional.cache.PoemCache;
+import com.glvov.springaimcpserver.model.WeatherInfo;
+import com.glvov.springaimcpserver.tools.ToolNotifier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.modelcontextprotocol.server.McpSyncServerExchange;
+import io.modelcontextprotocol.spec.McpSchema.ClientCapabilities;
+import io.modelcontextprotocol.spec.McpSchema.CreateMessageRequest;
+import io.modelcontextprotocol.spec.McpSchema.LoggingLevel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PoemSamplingServiceTest {
+
+    private static final WeatherInfo WEATHER = new WeatherInfo(40.6317, 22.9353, 18.2);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService toolExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final PoemCacheProperties poemCacheProperties =
+            new PoemCacheProperties(false, 10, Duration.ofHours(1), 1.0, 0.1, Duration.ofMinutes(2));
+
+    // a single sampling request in flight at a time
+    private final PoemSamplingService service = new PoemSamplingService(
+            new PoemCache(poemCacheProperties, meterRegistry),
+            poemCacheProperties,
+            new PoemSamplingProperties(Duration.ofMillis(100), 1),
+            toolExecutor,
+            meterRegistry,
+            ObservationRegistry.NOOP,
+            new ToolNotifier(new ToolNotificationProperties(LoggingLevel.INFO, 20, Duration.ZERO), meterRegistry));
+
+
+    @AfterEach
+    void tearDown() {
+        toolExecutor.close();
+    }
+
+    @Test
+    void abandonsSyncRequestPastDeadlineAndReleasesItsPermit() throws Exception {
+        CountDownLatch abandoned = new CountDownLatch(2);
+        McpSyncServerExchange exchange = mock(McpSyncServerExchange.class);
+        when(exchange.getClientCapabilities()).thenReturn(ClientCapabilities.builder().sampling().build());
+        when(exchange.createMessage(any(CreateMessageRequest.class))).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(Duration.ofMinutes(1)); // a stuck client
+            } catch (InterruptedException e) {
+                abandoned.countDown();
+                throw new IllegalStateException(e);
+            }
+            throw new AssertionError("the request must be abandoned at the deadline");
+        });
+
+        assertThat(service.generatePoem(exchange, "call-1", WEATHER)).isNull();
+        assertThat(service.generatePoem(exchange, "call-2", WEATHER)).isNull();
+
+        // the second call got the permit back, so it was sent too and hit the deadline instead of the cap
+        verify(exchange, times(2)).createMessage(any(CreateMessageRequest.class));
+        assertThat(abandoned.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(meterRegistry.counter("poem.sampling.fallbacks", "reason", "deadline").count()).isEqualTo(2);
+        assertThat(meterRegistry.find("poem.sampling.fallbacks").tag("reason", "capacity").counter()).isNull();
+        assertThat(meterRegistry.get("poem.sampling.active").gauge().value()).isZero();
+    }
+}
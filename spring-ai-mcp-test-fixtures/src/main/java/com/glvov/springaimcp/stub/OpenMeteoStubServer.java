@@ -0,0 +1,155 @@
+package com.glvov.springaimcp.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the OpenMeteo {@code /v1/forecast} endpoint, with configurable latency and error rate.
+ */
+public class OpenMeteoStubServer implements AutoCloseable {
+
+    private static final int INTERVAL_SECONDS = 900;
+
+    private final HttpServer server;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private volatile Duration latency = Duration.ZERO;
+    private volatile double errorRate;
+
+
+    private OpenMeteoStubServer(HttpServer server) {
+        this.server = server;
+    }
+
+    public static OpenMeteoStubServer start() throws IOException {
+        // headers and body are written separately, without TCP_NODELAY kept-alive connections stall on delayed ACKs
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        OpenMeteoStubServer stub = new OpenMeteoStubServer(server);
+        server.createContext("/v1/forecast", stub::handleForecast);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        return stub;
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public OpenMeteoStubServer latency(Duration latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    public OpenMeteoStubServer errorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    public long requestCount() {
+        return requests.get();
+    }
+
+    /**
+     * @return max number of requests the stub was handling at once
+     */
+    public int peakConcurrentRequests() {
+        return peakInFlight.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handleForecast(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try (exchange) {
+            sleep(latency);
+
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            byte[] body = forecastsJson(query.get("latitude"), query.get("longitude")).getBytes(StandardCharsets.UTF_8);
+
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Like OpenMeteo, responds with an array for comma-separated coordinates and with an object otherwise.
+     */
+    private static String forecastsJson(String latitudes, String longitudes) {
+        String[] lat = latitudes.split(",");
+        String[] lon = longitudes.split(",");
+        if (lat.length == 1) {
+            return forecastJson(lat[0], lon[0]);
+        }
+
+        StringJoiner forecasts = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < lat.length; i++) {
+            forecasts.add(forecastJson(lat[i], lon[i]));
+        }
+        return forecasts.toString();
+    }
+
+    private static String forecastJson(String latitude, String longitude) {
+        LocalDateTime observedAt = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MINUTES);
+        double temperature = 10 + Math.abs(Double.parseDouble(latitude)) % 20;
+
+        return String.format(Locale.ROOT, """
+                {"latitude":%s,"longitude":%s,"current_units":{"time":"iso8601","interval":"seconds","temperature_2m":"°C"},\
+                "current":{"time":"%s","interval":%d,"temperature_2m":%.1f}}""",
+                latitude, longitude, observedAt, INTERVAL_SECONDS, temperature);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static void sleep(Duration duration) {
+        if (duration.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
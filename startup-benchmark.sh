@@ -0,0 +1,77 @@
+#!/usr/bin/env bash
+#
+# Compares the startup time of the plain jars of the MCP Server and the MCP Client with their AOT-processed,
+# CDS-archive-backed builds (the "aot" Maven profile).
+#
+# Every run starts the application and exits right after the context refresh (-Dspring.context.exit=onRefresh),
+# i.e. it measures the JVM and Spring startup only: no Ollama, MCP Server or OpenMeteo is needed.
+#
+# Usage: ./startup-benchmark.sh [runs per variant, 10 by default]
+
+set -euo pipefail
+
+RUNS=${1:-10}
+ROOT=$(cd "$(dirname "$0")" && pwd)
+WORK="$ROOT/target/startup-benchmark"
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+
+# module and its executable jar
+MODULES=(
+  "spring-ai-mcp-server:spring-ai-mcp-server-0.0.1-SNAPSHOT-exec.jar"
+  "spring-ai-mcp-client:spring-ai-mcp-client-0.0.1-SNAPSHOT.jar"
+)
+
+build() {
+  local module=$1 jar=$2
+  echo "Building $module..."
+
+  mvn -q -f "$ROOT/pom.xml" -pl "$module" -am clean package -DskipTests
+  mkdir -p "$WORK/$module/plain"
+  cp "$ROOT/$module/target/$jar" "$WORK/$module/plain/"
+
+  # the training run logs the application startup, shown only when the build fails
+  mvn -q -f "$ROOT/pom.xml" -pl "$module" -am -Paot clean package -DskipTests > "$WORK/$module/aot-build.log" \
+    || { cat "$WORK/$module/aot-build.log"; exit 1; }
+  rm -rf "$WORK/$module/aot-cds"
+  cp -r "$ROOT/$module/target/cds" "$WORK/$module/aot-cds"
+}
+
+# prints the wall-clock time of one startup in milliseconds
+startup_millis() {
+  local dir=$1
+  shift
+  local start end
+  start=$(date +%s%N)
+  (cd "$dir" && "$JAVA" -Dspring.context.exit=onRefresh "$@" > /dev/null 2>&1)
+  end=$(date +%s%N)
+  echo $(((end - start) / 1000000))
+}
+
+measure() {
+  local label=$1 dir=$2
+  shift 2
+  local times=()
+
+  startup_millis "$dir" "$@" > /dev/null # warm up the OS file cache
+  for ((i = 0; i < RUNS; i++)); do
+    times+=("$(startup_millis "$dir" "$@")")
+  done
+
+  printf '%s\n' "${times[@]}" | sort -n | awk -v label="$label" '
+    { t[NR] = $1; sum += $1 }
+    END { printf "%-36s %8d %8d %8d %8d\n", label, t[1], t[int((NR + 1) / 2)], sum / NR, t[NR] }'
+}
+
+for entry in "${MODULES[@]}"; do
+  build "${entry%%:*}" "${entry#*:}"
+done
+
+echo
+printf '%-36s %8s %8s %8s %8s\n' "startup, ms ($RUNS runs)" "min" "median" "mean" "max"
+for entry in "${MODULES[@]}"; do
+  module=${entry%%:*}
+  jar=${entry#*:}
+  measure "$module plain jar" "$WORK/$module/plain" -jar "$jar"
+  measure "$module AOT + CDS" "$WORK/$module/aot-cds" \
+    -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar "$jar"
+done